@@ -0,0 +1,72 @@
+package tabularprint.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.TabularPrint;
+
+/**
+ * Measures {@code printRow} with a whole row passed as a single primitive array, 
+ * like a vector of sensor readings, and with a flat {@code Object[]} of the same values.
+ * One operation is one row.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ArrayRowBenchmark {
+    
+    @Param({"16", "256"})
+    public int length;
+    
+    @Param({"-1", "2"})
+    public int decimals;
+    
+    private TabularPrint tp;
+    private double[] doubles;
+    private int[] ints;
+    private Object[] boxed;
+    
+    @Setup(Level.Iteration)
+    public void setup() {
+        tp = new TabularPrint(new NullSink());
+        for (int i = 0; i < length; i++)
+            tp.addColumn(10).horizontalRight().decimals(decimals);
+        
+        doubles = new double[length];
+        ints = new int[length];
+        boxed = new Object[length];
+        for (int i = 0; i < length; i++) {
+            doubles[i] = i / 7.0;
+            ints[i] = i * 1000;
+            boxed[i] = doubles[i];
+        }
+    }
+    
+    @Benchmark
+    public void doubleArray() {
+        tp.printRow(doubles);
+    }
+    
+    @Benchmark
+    public void intArray() {
+        tp.printRow(ints);
+    }
+    
+    @Benchmark
+    public void flatObjects() {
+        tp.printRow(boxed);
+    }
+}
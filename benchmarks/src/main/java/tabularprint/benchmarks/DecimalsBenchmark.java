@@ -0,0 +1,71 @@
+package tabularprint.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.TabularPrint;
+
+/**
+ * Compares the numeric formatter of columns with {@code decimals(n)} against
+ * the previous path, that is {@code Math.pow}, {@code Math.floor} and {@code String.format}.
+ * Both print the same row of 4 numbers, so the difference is the cost of formatting.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DecimalsBenchmark {
+    
+    @Param({"0", "2", "6"})
+    public int decimals;
+    
+    private TabularPrint tp;
+    private final double[] values = {123.456789, -0.015, 98765.4321, 3.0};
+    
+    @Setup(Level.Iteration)
+    public void setup() {
+        tp = new TabularPrint(new NullSink());
+        for (int i = 0; i < values.length; i++)
+            tp.addColumn(16).horizontalRight().decimals(decimals);
+    }
+    
+    @Benchmark
+    public void formatter() {
+        tp.row()
+                .doubleCell(values[0])
+                .doubleCell(values[1])
+                .doubleCell(values[2])
+                .doubleCell(values[3])
+                .end();
+    }
+    
+    @Benchmark
+    public void stringFormat() {
+        tp.row()
+                .text(legacyRound(values[0], decimals))
+                .text(legacyRound(values[1], decimals))
+                .text(legacyRound(values[2], decimals))
+                .text(legacyRound(values[3], decimals))
+                .end();
+    }
+    
+    // the rounding used before the numeric formatter
+    private static String legacyRound(double val, int numberOfDecimals) {
+        double shift = Math.pow(10.0, numberOfDecimals);
+        double shiftedVal = Math.floor((val * shift) + 0.5);
+        double rounded = shiftedVal / shift;
+        return String.format("%." + Integer.toString(numberOfDecimals) + "f", rounded);
+    }
+}
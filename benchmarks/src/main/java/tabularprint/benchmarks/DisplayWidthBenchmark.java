@@ -0,0 +1,72 @@
+package tabularprint.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.TabularPrint;
+
+/**
+ * Measures the layout of text cells by display width, on a table of customer names.
+ * The names are either ASCII, which take the fast path, or a mix of Latin with accents,
+ * Greek, Chinese, Korean and emoji, some of them wrapped. One operation is one row.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DisplayWidthBenchmark {
+    
+    private static final String[] ASCII_NAMES = {
+        "John Smith", "Maria Garcia", "Wei Zhang", "Kim Min-jun", 
+        "Giorgos Papadopoulos", "Zoe Martin", "Ahmed Hassan", "Emily Johnson"
+    };
+    
+    private static final String[] MIXED_NAMES = {
+        "José Muñoz", "Γιώργος Παπαδόπουλος", 
+        "张伟", "毛泽东纪念馆有限公司", 
+        "김민준", "Zoë Martin 😀", "Ahmed Hassan", "Emily Johnson"
+    };
+    
+    @Param({"ascii", "mixed"})
+    public String content;
+    
+    private TabularPrint tp;
+    private String[] names;
+    private int next;
+    
+    @Setup(Level.Iteration)
+    public void setup() {
+        // String.charAt() is compiled for both Latin-1 and UTF-16 strings only once it has
+        // seen both, as it has in any application with non-Latin text, so one is printed first
+        TabularPrint warm = new TabularPrint();
+        warm.addColumn(5);
+        warm.printRow("é│");
+        names = content.equals("ascii") ? ASCII_NAMES : MIXED_NAMES;
+        tp = new TabularPrint(new NullSink());
+        tp.addColumnSeparator();
+        tp.addColumn(6, "id").horizontalRight();
+        tp.addColumnSeparator();
+        tp.addColumn(14, "name");
+        tp.addColumnSeparator();
+        tp.addColumn(14, "city").horizontalCenter();
+        tp.addColumnSeparator();
+    }
+    
+    @Benchmark
+    public void printRow() {
+        int i = next++;
+        tp.printRow(i, names[i & 7], names[(i + 3) & 7]);
+    }
+}
@@ -0,0 +1,92 @@
+package tabularprint.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.FileSink;
+import tabularprint.TabularPrint;
+
+/**
+ * Compares the ways of writing a whole table to a file: {@code getString()} followed by
+ * {@code Files.writeString}, a buffered writer, and a {@code FileSink} in both of its modes.
+ * A {@code FileSink} also forces the file to the storage device when it is closed,
+ * which the others do not.
+ * Run with {@code -prof gc} to compare the allocation per table.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class FileSinkBenchmark {
+    
+    @Param({"100000"})
+    public int rows;
+    
+    private Path file;
+    private Object[][] data;
+    
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("tabularprint", ".txt");
+        data = new Object[rows][];
+        for (int i = 0; i < rows; i++)
+            data[i] = Tables.row("wide", "short", i);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+    
+    @Benchmark
+    public void getStringThenWrite() throws IOException {
+        TabularPrint tp = Tables.create(null, "wide", 2, true, false);
+        tp.printRows(data);
+        Files.writeString(file, tp.getString());
+    }
+    
+    @Benchmark
+    public void bufferedWriter() throws IOException {
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            TabularPrint tp = Tables.create(w, "wide", 2, true, false);
+            tp.printRows(data);
+            tp.finish();
+        }
+    }
+    
+    @Benchmark
+    public void mappedSink() throws IOException {
+        writeTo(FileSink.MAPPED);
+    }
+    
+    @Benchmark
+    public void directSink() throws IOException {
+        writeTo(FileSink.DIRECT);
+    }
+    
+    private void writeTo(int mode) throws IOException {
+        try (FileSink sink = new FileSink(file, mode, FileSink.DEFAULT_BUFFER_SIZE)) {
+            TabularPrint tp = Tables.create(sink, "wide", 2, true, false);
+            tp.printRows(data);
+            tp.finish();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package tabularprint.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.TabularPrint;
+
+/**
+ * Measures {@code getString} on a table that is kept in memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GetStringBenchmark {
+    
+    @Param({"1000", "100000"})
+    public int rows;
+    
+    @Param({"narrow", "wide"})
+    public String shape;
+    
+    private TabularPrint tp;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        tp = Tables.create(null, shape, 2, false, false);
+        for (int i = 0; i < rows; i++)
+            tp.printRow(Tables.row(shape, "short", i));
+    }
+    
+    @Benchmark
+    public String getString() {
+        return tp.getString();
+    }
+}
@@ -0,0 +1,63 @@
+package tabularprint.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.TabularPrint;
+
+/**
+ * Measures a single row with a multi-megabyte cell in a 40 character column,
+ * like a stack trace or a payload dump.
+ * Wrapping is linear when the time per row doubles as the cell length doubles.
+ * <p>
+ * A {@code plain} cell has no line breaks at all, a {@code lines} cell has
+ * a line break every 120 characters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LongCellBenchmark {
+    
+    @Param({"1048576", "2097152", "4194304"})
+    public int cellLength;
+    
+    @Param({"plain", "lines"})
+    public String content;
+    
+    private TabularPrint tp;
+    private String cell;
+    
+    @Setup
+    public void setup() {
+        tp = new TabularPrint(new NullSink());
+        tp.addColumn(8).horizontalRight();
+        tp.addColumnSeparator();
+        tp.addColumn(40);
+        
+        StringBuilder sb = new StringBuilder(cellLength);
+        for (int i = 0; i < cellLength; i++) {
+            if (content.equals("lines") && i % 120 == 119)
+                sb.append('\n');
+            else
+                sb.append((char) ('a' + i % 26));
+        }
+        cell = sb.toString();
+    }
+    
+    @Benchmark
+    public void printRow() {
+        tp.printRow(1, cell);
+    }
+}
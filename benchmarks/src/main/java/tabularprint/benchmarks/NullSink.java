@@ -0,0 +1,34 @@
+package tabularprint.benchmarks;
+
+/**
+ * An {@code Appendable} that discards everything, so that a streaming
+ * {@code TabularPrint} can print any number of rows with flat memory.
+ * It only counts the characters it receives.
+ */
+public final class NullSink implements Appendable {
+    
+    private long count = 0;
+    
+    @Override
+    public Appendable append(CharSequence csq) {
+        count += csq.length();
+        return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+        count += end - start;
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) {
+        count++;
+        return this;
+    }
+    
+    /**
+     * @return the number of characters appended so far
+     */
+    public long count() { return count; }
+}
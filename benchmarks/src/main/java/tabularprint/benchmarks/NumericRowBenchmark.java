@@ -0,0 +1,56 @@
+package tabularprint.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.TabularPrint;
+
+/**
+ * Compares {@code printRow(Object...)} with the {@code row()} cursor on a table 
+ * of numbers, like a metrics table. One operation is one row.
+ * Run with {@code -prof gc} to compare the bytes allocated per row.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NumericRowBenchmark {
+    
+    private TabularPrint tp;
+    private long seq;
+    
+    @Setup(Level.Iteration)
+    public void setup() {
+        tp = new TabularPrint(new NullSink());
+        tp.addColumn(10).horizontalRight();
+        tp.addColumnSeparator();
+        tp.addColumn(14).horizontalRight();
+        tp.addColumnSeparator();
+        tp.addColumn(12).horizontalRight();
+        tp.addColumnSeparator();
+        tp.addColumn(8);
+    }
+    
+    @Benchmark
+    public void printRow() {
+        long i = seq++;
+        tp.printRow((int) i, i * 1000, i / 3.0, "ok");
+    }
+    
+    @Benchmark
+    public void rowCursor() {
+        long i = seq++;
+        tp.row().intCell((int) i).longCell(i * 1000).doubleCell(i / 3.0).text("ok").end();
+    }
+}
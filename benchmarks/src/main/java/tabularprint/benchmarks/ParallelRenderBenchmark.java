@@ -0,0 +1,64 @@
+package tabularprint.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.TabularPrint;
+
+/**
+ * Compares rendering a retained list of rows one by one, with {@code printRows},
+ * against rendering it in parallel, with {@code printRowsParallel}.
+ * One operation renders the whole table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelRenderBenchmark {
+    
+    @Param({"200000"})
+    public int rows;
+    
+    @Param({"narrow", "wide"})
+    public String shape;
+    
+    private List<Object[]> data;
+    
+    @Setup
+    public void setup() {
+        data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++)
+            data.add(Tables.row(shape, "wrapped", i));
+    }
+    
+    @Benchmark
+    public long sequential() {
+        NullSink sink = new NullSink();
+        TabularPrint tp = Tables.create(sink, shape, 2, true, true);
+        tp.printRows(data);
+        tp.finish();
+        return sink.count();
+    }
+    
+    @Benchmark
+    public long parallel() {
+        NullSink sink = new NullSink();
+        TabularPrint tp = Tables.create(sink, shape, 2, true, true);
+        tp.printRowsParallel(data);
+        tp.finish();
+        return sink.count();
+    }
+}
@@ -0,0 +1,62 @@
+package tabularprint.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.TabularPrint;
+
+/**
+ * Measures {@code printRow}, that is formatting, wrapping and padding of a single row.
+ * One operation is one row, so the score is in rows per second.
+ * Run with {@code -prof gc} to get the bytes allocated per row ({@code gc.alloc.rate.norm}).
+ * <p>
+ * The table writes to a {@link NullSink}, so the memory stays flat
+ * no matter how many rows are printed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PrintRowBenchmark {
+    
+    @Param({"narrow", "wide"})
+    public String shape;
+    
+    @Param({"short", "wrapped"})
+    public String content;
+    
+    @Param({"-1", "2"})
+    public int decimals;
+    
+    @Param({"false", "true"})
+    public boolean border;
+    
+    @Param({"false", "true"})
+    public boolean rowSeparators;
+    
+    private TabularPrint tp;
+    private Object[] row;
+    
+    @Setup(Level.Iteration)
+    public void setup() {
+        tp = Tables.create(new NullSink(), shape, decimals, border, rowSeparators);
+        row = Tables.row(shape, content, 42);
+    }
+    
+    @Benchmark
+    public void printRow() {
+        tp.printRow(row);
+    }
+}
@@ -0,0 +1,51 @@
+package tabularprint.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.TabularPrint;
+
+/**
+ * Measures the cost of the render counters, on the narrow table of {@link PrintRowBenchmark}.
+ * With the counters off, a row should cost the same as a row of a table that has
+ * no counters at all. One operation is one row.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderStatsBenchmark {
+    
+    @Param({"short", "wrapped"})
+    public String content;
+    
+    @Param({"false", "true"})
+    public boolean stats;
+    
+    private TabularPrint tp;
+    private Object[] row;
+    
+    @Setup(Level.Iteration)
+    public void setup() {
+        tp = Tables.create(new NullSink(), "narrow", 2, true, false);
+        if (stats) tp.enableStats();
+        row = Tables.row("narrow", content, 42);
+    }
+    
+    @Benchmark
+    public void printRow() {
+        tp.printRow(row);
+    }
+}
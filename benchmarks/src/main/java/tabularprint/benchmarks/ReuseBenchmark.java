@@ -0,0 +1,59 @@
+package tabularprint.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.TabularPrint;
+
+/**
+ * Measures a small report, that is a table of a few rows returned as a {@code String}, 
+ * either built from scratch every time or reused with {@code clearRows()}.
+ * One operation is one report.
+ * Run with {@code -prof gc} to compare the bytes allocated per report.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReuseBenchmark {
+    
+    @Param({"10", "100"})
+    public int rows;
+    
+    private TabularPrint reused;
+    private Object[] row;
+    
+    @Setup
+    public void setup() {
+        reused = Tables.create(null, "narrow", 2, true, false);
+        reused.setExpectedRows(rows);
+        row = Tables.row("narrow", "short", 42);
+    }
+    
+    @Benchmark
+    public String fresh() {
+        TabularPrint tp = Tables.create(null, "narrow", 2, true, false);
+        for (int i = 0; i < rows; i++)
+            tp.printRow(row);
+        return tp.getString();
+    }
+    
+    @Benchmark
+    public String reused() {
+        reused.clearRows();
+        for (int i = 0; i < rows; i++)
+            reused.printRow(row);
+        return reused.getString();
+    }
+}
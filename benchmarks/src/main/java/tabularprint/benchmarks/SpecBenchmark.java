@@ -0,0 +1,71 @@
+package tabularprint.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.TableRenderer;
+import tabularprint.TableSpec;
+import tabularprint.TabularPrint;
+
+/**
+ * Measures a small report printed with a renderer of a shared {@code TableSpec},
+ * against a {@code TabularPrint} of every thread reused with {@code clearRows()}.
+ * One operation is one report. Run with {@code -t} to share the spec among threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SpecBenchmark {
+    
+    @State(Scope.Benchmark)
+    public static class Shared {
+        private TableSpec spec;
+        
+        @Setup
+        public void setup() {
+            spec = Tables.create(null, "narrow", 2, true, false).compile();
+        }
+    }
+    
+    @Param({"10", "100"})
+    public int rows;
+    
+    private TabularPrint table;
+    private TableRenderer renderer;
+    private Object[] row;
+    
+    @Setup
+    public void setup(Shared shared) {
+        table = Tables.create(null, "narrow", 2, true, false);
+        renderer = shared.spec.newRenderer();
+        row = Tables.row("narrow", "short", 42);
+    }
+    
+    @Benchmark
+    public String table() {
+        table.clearRows();
+        for (int i = 0; i < rows; i++)
+            table.printRow(row);
+        return table.getString();
+    }
+    
+    @Benchmark
+    public String spec() {
+        renderer.clear();
+        for (int i = 0; i < rows; i++)
+            renderer.printRow(row);
+        return renderer.getString();
+    }
+}
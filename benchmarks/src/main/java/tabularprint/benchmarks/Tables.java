@@ -0,0 +1,64 @@
+package tabularprint.benchmarks;
+
+import tabularprint.TabularPrint;
+
+/**
+ * Builds the tables and rows shared by the benchmarks.
+ */
+final class Tables {
+    
+    static final String SHORT_TEXT = "abc def";
+    static final String WRAPPED_TEXT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit,\n"
+            + "sed do eiusmod tempor incididunt ut labore et dolore magna aliqua.";
+    
+    private Tables() {}
+    
+    /**
+     * Adds the columns of the given shape to the table.
+     * A narrow table has 3 columns, a wide one has 20. Every third column is text,
+     * the rest are numbers.
+     */
+    static void addColumns(TabularPrint tp, String shape, int decimals) {
+        int numOfColumns = shape.equals("wide") ? 20 : 3;
+        tp.addColumnSeparator();
+        for (int i = 0; i < numOfColumns; i++) {
+            if (i % 3 == 2)
+                tp.addColumn(14, "text " + i);
+            else
+                tp.addColumn(10, "number " + i).horizontalRight().decimals(decimals);
+            tp.addColumnSeparator();
+        }
+    }
+    
+    /**
+     * Creates a fully configured table.
+     */
+    static TabularPrint create(Appendable out, String shape, int decimals,
+            boolean border, boolean rowSeparators) {
+        TabularPrint tp = out == null ? new TabularPrint() : new TabularPrint(out);
+        tp.showBorder(border);
+        tp.showHeaders(true);
+        tp.showRowSeparators(rowSeparators);
+        tp.setTitle("Benchmark");
+        addColumns(tp, shape, decimals);
+        return tp;
+    }
+    
+    /**
+     * Creates the cells of a row matching {@link #addColumns(TabularPrint, String, int)}.
+     */
+    static Object[] row(String shape, String content, long seed) {
+        int numOfColumns = shape.equals("wide") ? 20 : 3;
+        String text = content.equals("wrapped") ? WRAPPED_TEXT : SHORT_TEXT;
+        Object[] row = new Object[numOfColumns];
+        for (int i = 0; i < numOfColumns; i++) {
+            if (i % 3 == 2)
+                row[i] = text;
+            else if (i % 3 == 1)
+                row[i] = (seed * 31 + i) / 7.0;
+            else
+                row[i] = (int) (seed * 17 + i);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,70 @@
+package tabularprint.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.TabularPrint;
+import tabularprint.TableColumn;
+import tabularprint.TypedTabularPrint;
+
+/**
+ * Compares printing records through {@code forType()} with unpacking them by hand 
+ * into {@code printRow(Object...)}. One operation is one row.
+ * Run with {@code -prof gc} to compare the bytes allocated per row.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TypedRowBenchmark {
+    
+    public record Sample(@TableColumn(width = 10) int id, 
+                         @TableColumn(width = 14) long time, 
+                         @TableColumn(width = 12) double value, 
+                         @TableColumn(width = 8) String status){}
+    
+    private TabularPrint tp;
+    private TypedTabularPrint<Sample> typed;
+    private final Sample[] samples = new Sample[1024];
+    private int next;
+    
+    @Setup(Level.Iteration)
+    public void setup() {
+        for (int i = 0; i < samples.length; i++)
+            samples[i] = new Sample(i, i * 1000L, i / 3.0, "ok");
+        
+        typed = new TypedTabularPrint<>(Sample.class, new TabularPrint(new NullSink()));
+        
+        tp = new TabularPrint(new NullSink());
+        tp.showHeaders(true);
+        tp.addColumn(10, "id").horizontalRight();
+        tp.addColumnSeparator();
+        tp.addColumn(14, "time").horizontalRight();
+        tp.addColumnSeparator();
+        tp.addColumn(12, "value").horizontalRight().decimals(2);
+        tp.addColumnSeparator();
+        tp.addColumn(8, "status");
+    }
+    
+    @Benchmark
+    public void byHand() {
+        Sample s = samples[next++ & (samples.length - 1)];
+        tp.printRow(s.id(), s.time(), s.value(), s.status());
+    }
+    
+    @Benchmark
+    public void forType() {
+        typed.printRow(samples[next++ & (samples.length - 1)]);
+    }
+}
@@ -0,0 +1,61 @@
+package tabularprint.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tabularprint.TabularPrint;
+
+/**
+ * Compares {@code getBytes()} and {@code writeTo(OutputStream)} against 
+ * {@code getString().getBytes(UTF_8)}, on a table of ASCII cells framed by 
+ * box-drawing separators. The table has no border, so {@code getString()} 
+ * does not change it between invocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class Utf8Benchmark {
+    
+    @Param({"1000", "100000"})
+    public int rows;
+    
+    private TabularPrint tp;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        tp = Tables.create(null, "wide", 2, false, true);
+        for (int i = 0; i < rows; i++)
+            tp.printRow(Tables.row("wide", "short", i));
+    }
+    
+    @Benchmark
+    public byte[] getStringThenGetBytes() {
+        return tp.getString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Benchmark
+    public byte[] getBytes() {
+        return tp.getBytes();
+    }
+    
+    @Benchmark
+    public void writeTo() throws IOException {
+        tp.writeTo(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,251 @@
+package tabularprint;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@code TabularPrint} that many threads can print rows to, at the same time.
+ * <p>
+ * The columns, the title and the decoration are defined on a plain {@code TabularPrint},
+ * which is then passed to the constructor. From that point on, the layout of the table
+ * is frozen and the given {@code TabularPrint} must not be used directly.
+ * <p>
+ * Every thread renders its rows into a buffer of its own, so threads do not wait
+ * for each other. The buffers are merged by {@link getString()}, either in insertion order,
+ * the order in which {@code printRow} was called, or in arrival order, that is
+ * the order in which the rows were rendered.
+ * <p>
+ * The buffers belong to this object, not to the threads, so a table that is no longer
+ * used is collected together with its rows, even if the threads that printed them, 
+ * for example the threads of a pool, are still alive.
+ *
+ * @see TabularPrint
+ */
+public class ConcurrentTabularPrint {
+
+    /** Rows are merged in the order in which {@code printRow} was called. */
+    public static final int INSERTION_ORDER = 1;
+
+    /** Rows are merged in the order in which they were rendered. */
+    public static final int ARRIVAL_ORDER = 2;
+
+    private final TabularPrint table;
+    private final int order;
+
+    // the border, the title and the headers, rendered once by the constructor
+    private final String head;
+
+    // the sequence number of the next row
+    private final AtomicLong sequence = new AtomicLong();
+
+    // the buffer of every thread that has printed at least one row
+    private final Map<Thread, Stripe> stripes = new ConcurrentHashMap<>();
+
+
+    /* *********************************************************************
+                            C O N S T R U C T O R S
+       ********************************************************************* */
+    /**
+     * Creates a {@code ConcurrentTabularPrint} with the columns and the decoration
+     * of the given table.
+     *
+     * @param table the table that defines the columns. It must not have printed any rows,
+     * and it must not write to an output sink
+     * @param order the order of the rows. Possible values are one of the following
+     * static constants {@code INSERTION_ORDER}, {@code ARRIVAL_ORDER}
+     * @throws IllegalArgumentException if {@code order} is not one of the constants above
+     * @throws IllegalStateException if the table has already printed rows or if it
+     * writes to an output sink
+     */
+    public ConcurrentTabularPrint(TabularPrint table, int order){
+        if (order != INSERTION_ORDER && order != ARRIVAL_ORDER)
+            throw new IllegalArgumentException("order: " + order);
+        this.table = table;
+        this.order = order;
+        // headers and borders are printed here, once, so there is nothing left to
+        // initialize when rows are printed
+        this.head = table.freezeLayout();
+    }
+
+
+    /**
+     * Works just like {@link ConcurrentTabularPrint(TabularPrint, int)} with the order
+     * set to {@code INSERTION_ORDER}.
+     *
+     * @param table the table that defines the columns
+     * @throws IllegalStateException if the table has already printed rows or if it
+     * writes to an output sink
+     */
+    public ConcurrentTabularPrint(TabularPrint table){
+        this(table, INSERTION_ORDER);
+    }
+
+
+    /* *********************************************************************
+                      P R I N T I N G   M E T H O D S
+       ********************************************************************* */
+    /**
+     * Prints the given values as consecutive cells in a single row,
+     * just like {@link TabularPrint#printRow(Object[])}.
+     * This method can be called by many threads at the same time.
+     * <p>
+     * If the text of a cell cannot be obtained, the exception is thrown to the caller 
+     * and the row is not printed. The rows printed after it are not affected.
+     *
+     * @param cells the values to be printed
+     */
+    public void printRow(Object... cells){
+        Stripe stripe = localStripe();
+        long seq = order == INSERTION_ORDER ? sequence.getAndIncrement() : -1;
+
+        // only getString() competes for this lock
+        synchronized (stripe){
+            long start = stripe.text.length();
+            boolean rendered = false;
+            try {
+                stripe.renderer.render(cells, false);
+                rendered = true;
+            } finally {
+                if (!rendered){
+                    // the text of the failed row is dropped. Its number is taken, so it
+                    // is kept by an empty row, or getString() would stop there
+                    stripe.text.setLength(start);
+                    if (order == INSERTION_ORDER)
+                        stripe.addRow(seq);
+                }
+            }
+            if (order == ARRIVAL_ORDER)
+                seq = sequence.getAndIncrement();
+            stripe.addRow(seq);
+        }
+    }
+
+
+    /**
+     * Prints the given values as consecutive cells in a single row.
+     * The same as {@link printRow(Object[])} except for the type parameter.
+     *
+     * @param list the list of values to be printed
+     */
+    public void printRow(List<Object> list){
+        printRow(list.toArray());
+    }
+
+
+    // the buffer of the current thread, created with its first row
+    private Stripe localStripe(){
+        Thread thread = Thread.currentThread();
+        Stripe stripe = stripes.get(thread);
+        if (stripe == null){
+            stripe = new Stripe(table);
+            stripes.put(thread, stripe);
+        }
+        return stripe;
+    }
+
+
+    /* *********************************************************************
+                             G E T   M E T H O D
+       ********************************************************************* */
+    /**
+     * Returns the table as a {@code String}, with the rows printed so far, in order.
+     * This method does not affect the state of this object, so rows can still be
+     * printed after its invocation.
+     * <p>
+     * The rows are complete once every thread has returned from {@code printRow}, 
+     * for example once the tasks that print the rows are joined. Called while rows 
+     * are still being printed, this method returns the rows up to the first one 
+     * that is not finished yet, so the result never has gaps: it is always the first
+     * rows of the complete table.
+     *
+     * @return the table as a {@code String}
+     */
+    public String getString(){
+        // take a snapshot of every stripe. Rows below numOfRows never change, 
+        // so they can be read once the snapshot is taken
+        Stripe[] all = stripes.values().toArray(new Stripe[0]);
+        int[] numOfRows = new int[all.length];
+        long[][] seqs = new long[all.length][];
+        long length = head.length();
+        for (int i = 0; i < all.length; i++){
+            synchronized (all[i]){
+                numOfRows[i] = all[i].numOfRows;
+                seqs[i] = all[i].seqs;
+                length += all[i].text.length();
+            }
+        }
+        if (length > Integer.MAX_VALUE - 8)
+            throw new OutOfMemoryError("the table is too large for a String: " + length);
+
+        // sequence numbers are unique and increasing within a stripe, so the stripes 
+        // are merged by the number of their next row
+        int[] next = new int[all.length];
+        PriorityQueue<Integer> queue = new PriorityQueue<>(Math.max(1, all.length),
+                (a, b) -> Long.compare(seqs[a][next[a]], seqs[b][next[b]]));
+        for (int i = 0; i < all.length; i++)
+            if (numOfRows[i] > 0) queue.add(i);
+
+        char[] separator = table.rowSeparator();
+        char[] bottom = table.bottomBorder();
+        StringBuilder sb = new StringBuilder((int) length);
+        sb.append(head);
+        long expected = 0;
+        boolean hasRows = false;
+        while (!queue.isEmpty()){
+            int i = queue.poll();
+            int r = next[i];
+            // the row with the expected number is still being printed
+            if (seqs[i][r] != expected) break;
+            expected++;
+
+            Stripe stripe = all[i];
+            synchronized (stripe){
+                long start = r == 0 ? 0 : stripe.ends[r - 1];
+                // a row that failed to render is empty, and it is skipped
+                if (stripe.ends[r] > start){
+                    if (separator != null && hasRows) sb.append(separator);
+                    stripe.text.appendTo(sb, start, stripe.ends[r]);
+                    hasRows = true;
+                }
+            }
+            if (++next[i] < numOfRows[i]) queue.add(i);
+        }
+        if (bottom != null) sb.append(bottom);
+
+        return sb.toString();
+    }
+
+
+    /* *************************
+         S T R I P E   C L A S S
+       ************************* */
+    /*
+     * The rows of a single thread, rendered one after the other into the same buffer,
+     * together with their sequence numbers and the end of every row in the buffer.
+     */
+    private static final class Stripe{
+        private final TextBuffer text = new TextBuffer();
+        private final TabularPrint.Renderer renderer;
+        private long[] seqs = new long[64];
+        private long[] ends = new long[64];
+        private int numOfRows = 0;
+
+        private Stripe(TabularPrint table){
+            this.renderer = table.newRenderer(text);
+        }
+
+        private void addRow(long seq){
+            if (numOfRows == seqs.length){
+                seqs = Arrays.copyOf(seqs, 2 * numOfRows);
+                ends = Arrays.copyOf(ends, 2 * numOfRows);
+            }
+            seqs[numOfRows] = seq;
+            ends[numOfRows] = text.length();
+            numOfRows++;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package tabularprint;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/*
+ * The number of terminal columns taken by text, that is its display width.
+ * Most characters take one column. East Asian wide and fullwidth characters,
+ * as well as most emoji, take two. Combining marks and format characters take none,
+ * since they are drawn over the character before them.
+ *
+ * ASCII text is measured by its length, without any lookup. For all other text,
+ * the width of every code point is looked up in a two-stage table, whose blocks are 
+ * computed on first use, so tables of ASCII text never compute any.
+ *
+ * The table is not generated ahead of time. It is filled from Character.getType() and
+ * the ranges of wide characters below, so it follows the Unicode version of the JDK
+ * and the sources carry no generated data. Computing every block at once would take 
+ * about 80 ms and 280 KB, for scripts that most tables never print. A block takes 
+ * microseconds, and once it is computed a lookup costs the same as in a precomputed table.
+ */
+final class DisplayWidth {
+
+    private DisplayWidth(){}
+
+
+    /*
+     * Returns the display width of a single code point, that is 0, 1 or 2.
+     */
+    static int of(int codePoint){
+        if (codePoint < 0x80) return 1;
+        return Table.width(codePoint);
+    }
+
+
+    /*
+     * Returns the display width of the characters s[start, end).
+     */
+    static int of(CharSequence s, int start, int end){
+        // a single pass without any branch tells if the text is ASCII
+        int bits = 0;
+        for (int i = start; i < end; i++)
+            bits |= s.charAt(i);
+        if (bits < 0x80) return end - start;
+
+        int width = 0;
+        for (int i = start; i < end; i++){
+            int codePoint = codePointAt(s, i, end);
+            if (codePoint > 0xFFFF) i++;
+            width += of(codePoint);
+        }
+        return width;
+    }
+
+
+    /*
+     * Returns the code point at index i, which is a surrogate pair if a high surrogate
+     * at i is followed by a low surrogate before the given end. A surrogate without
+     * its other half is returned as it is.
+     */
+    static int codePointAt(CharSequence s, int i, int end){
+        char c = s.charAt(i);
+        if (Character.isHighSurrogate(c) && i + 1 < end){
+            char low = s.charAt(i + 1);
+            if (Character.isLowSurrogate(low))
+                return Character.toCodePoint(c, low);
+        }
+        return c;
+    }
+
+
+    /* ***************************
+         T A B L E   C L A S S
+       *************************** */
+    /*
+     * The width of every code point, 2 bits each, in blocks of 256 code points.
+     * A block is computed the first time one of its code points is looked up, so only
+     * the blocks of the scripts in use are ever computed, 64 bytes each.
+     * Blocks are published with release and acquire semantics, so they can be looked up 
+     * by many threads. Two threads may compute the same block, with the same result.
+     */
+    private static final class Table{
+        private static final int BLOCK_SHIFT = 8;
+        private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+        private static final int[] WIDE = {
+            0x1100, 0x115F, 0x231A, 0x231B, 0x2329, 0x232A, 0x23E9, 0x23EC, 0x23F0, 0x23F0,
+            0x23F3, 0x23F3, 0x25FD, 0x25FE, 0x2614, 0x2615, 0x2648, 0x2653, 0x267F, 0x267F,
+            0x2693, 0x2693, 0x26A1, 0x26A1, 0x26AA, 0x26AB, 0x26BD, 0x26BE, 0x26C4, 0x26C5,
+            0x26CE, 0x26CE, 0x26D4, 0x26D4, 0x26EA, 0x26EA, 0x26F2, 0x26F3, 0x26F5, 0x26F5,
+            0x26FA, 0x26FA, 0x26FD, 0x26FD, 0x2705, 0x2705, 0x270A, 0x270B, 0x2728, 0x2728,
+            0x274C, 0x274C, 0x274E, 0x274E, 0x2753, 0x2755, 0x2757, 0x2757, 0x2795, 0x2797,
+            0x27B0, 0x27B0, 0x27BF, 0x27BF, 0x2B1B, 0x2B1C, 0x2B50, 0x2B50, 0x2B55, 0x2B55,
+            0x2E80, 0x303E, 0x3041, 0x33FF, 0x3400, 0x4DBF, 0x4E00, 0x9FFF, 0xA000, 0xA4CF,
+            0xA960, 0xA97F, 0xAC00, 0xD7A3, 0xF900, 0xFAFF, 0xFE10, 0xFE19, 0xFE30, 0xFE6F,
+            0xFF00, 0xFF60, 0xFFE0, 0xFFE6,
+            0x16FE0, 0x16FE4, 0x17000, 0x18CFF, 0x1AFF0, 0x1B2FF, 0x1F004, 0x1F004,
+            0x1F0CF, 0x1F0CF, 0x1F18E, 0x1F18E, 0x1F191, 0x1F19A, 0x1F200, 0x1F202,
+            0x1F210, 0x1F23B, 0x1F240, 0x1F248, 0x1F250, 0x1F251, 0x1F260, 0x1F265,
+            0x1F300, 0x1F320, 0x1F32D, 0x1F335, 0x1F337, 0x1F37C, 0x1F37E, 0x1F393,
+            0x1F3A0, 0x1F3CA, 0x1F3CF, 0x1F3D3, 0x1F3E0, 0x1F3F0, 0x1F3F4, 0x1F3F4,
+            0x1F3F8, 0x1F43E, 0x1F440, 0x1F440, 0x1F442, 0x1F4FC, 0x1F4FF, 0x1F53D,
+            0x1F54B, 0x1F54E, 0x1F550, 0x1F567, 0x1F57A, 0x1F57A, 0x1F595, 0x1F596,
+            0x1F5A4, 0x1F5A4, 0x1F5FB, 0x1F64F, 0x1F680, 0x1F6C5, 0x1F6CC, 0x1F6CC,
+            0x1F6D0, 0x1F6D2, 0x1F6D5, 0x1F6D7, 0x1F6DC, 0x1F6DF, 0x1F6EB, 0x1F6EC,
+            0x1F6F4, 0x1F6FC, 0x1F7E0, 0x1F7EB, 0x1F7F0, 0x1F7F0, 0x1F90C, 0x1F93A,
+            0x1F93C, 0x1F945, 0x1F947, 0x1F9FF, 0x1FA70, 0x1FAFF,
+            0x20000, 0x2FFFD, 0x30000, 0x3FFFD
+        };
+
+        private static final byte[][] BLOCKS = new byte[(Character.MAX_CODE_POINT + 1) >> BLOCK_SHIFT][];
+        private static final VarHandle BLOCK = MethodHandles.arrayElementVarHandle(byte[][].class);
+
+
+        private static int width(int codePoint){
+            int b = codePoint >>> BLOCK_SHIFT;
+            byte[] block = (byte[]) BLOCK.getAcquire(BLOCKS, b);
+            if (block == null) block = computeBlock(b);
+            int i = codePoint & (BLOCK_SIZE - 1);
+            return (block[i >>> 2] >>> (2 * (i & 3))) & 3;
+        }
+
+
+        private static byte[] computeBlock(int b){
+            byte[] block = new byte[BLOCK_SIZE / 4];
+            int first = b << BLOCK_SHIFT;
+            for (int i = 0; i < BLOCK_SIZE; i++){
+                int codePoint = first + i;
+                int width = isZeroWidth(codePoint) ? 0 : isWide(codePoint) ? 2 : 1;
+                block[i >>> 2] |= (byte) (width << (2 * (i & 3)));
+            }
+            BLOCK.setRelease(BLOCKS, b, block);
+            return block;
+        }
+
+
+        private static boolean isZeroWidth(int codePoint){
+            int type = Character.getType(codePoint);
+            // the soft hyphen is a format character, but terminals show it
+            if ((type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK
+                    || type == Character.FORMAT) && codePoint != 0x00AD)
+                return true;
+            // the medial vowels and final consonants of Hangul are joined to the initial one
+            return codePoint >= 0x1160 && codePoint <= 0x11FF;
+        }
+
+
+        // a binary search among the ranges of wide characters
+        private static boolean isWide(int codePoint){
+            int low = 0;
+            int high = WIDE.length / 2 - 1;
+            while (low <= high){
+                int mid = (low + high) >>> 1;
+                if (codePoint < WIDE[2 * mid]) high = mid - 1;
+                else if (codePoint > WIDE[2 * mid + 1]) low = mid + 1;
+                else return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package tabularprint;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A sink that writes text to a file, encoded as UTF-8, without any intermediate
+ * {@code String} or {@code byte[]} of the whole text.
+ * It is meant to be passed to {@link TabularPrint#TabularPrint(Appendable)}, for reports
+ * too large to be kept in memory. For example
+ * <pre>
+ *     try (FileSink sink = new FileSink(Path.of("report.txt"))) {
+ *         TabularPrint tp = new TabularPrint(sink);
+ *         ...
+ *         tp.finish();
+ *     }
+ * </pre>
+ * The text is encoded straight into a large buffer, which is either a mapped region
+ * of the file or a direct buffer that is written to the file once it is full.
+ * In both cases, the memory needed does not depend on the size of the file.
+ * <p>
+ * A mapped region extends the file up to its end, so the file is larger than its text
+ * until the sink is closed. Closing the sink cuts the file at the end of its text
+ * and forces it to the storage device, so a closed sink is durable in both modes.
+ * In {@code MAPPED} mode, every region is also forced when the next one is mapped.
+ */
+public class FileSink implements Appendable, Flushable, Closeable {
+
+    /**
+     * The text is encoded into consecutive mapped regions of the file.
+     * The file is cut at the end of its text on close, which needs a platform that can 
+     * resize a file while regions of it are mapped, such as Linux or macOS. Windows
+     * cannot, since a region stays mapped until it is garbage collected, so {@code DIRECT}
+     * is the mode to use there.
+     */
+    public static final int MAPPED = 1;
+
+    /** The text is encoded into a direct buffer, which is written to the file once it is full. */
+    public static final int DIRECT = 2;
+
+    /** The default size of a mapped region or of the direct buffer, in bytes. */
+    public static final int DEFAULT_BUFFER_SIZE = 16 * 1024 * 1024;
+
+    // the characters are encoded into a small array first, and then copied in bulk
+    private static final int STAGE_SIZE = 8 * 1024;
+
+    private final FileChannel channel;
+    private final int mode;
+    private final int bufferSize;
+
+    // the mapped region or the direct buffer, and the position of its start in the file
+    private ByteBuffer buffer;
+    private long bufferStart = 0;
+
+    private final Utf8.Encoder encoder = new Utf8.Encoder(STAGE_SIZE){
+        @Override
+        void drain(byte[] bytes, int length) throws IOException{
+            copyToBuffer(bytes, length);
+        }
+    };
+
+    private boolean isClosed = false;
+
+
+    /* *********************************************************************
+                            C O N S T R U C T O R S
+       ********************************************************************* */
+    /**
+     * Creates a sink that writes to the given file. The file is created,
+     * or truncated if it exists.
+     *
+     * @param file the file to write to
+     * @param mode how the file is written. Possible values are one of the following
+     * static constants {@code MAPPED}, {@code DIRECT}
+     * @param bufferSize the size of a mapped region or of the direct buffer, in bytes
+     * @throws IOException if the file cannot be opened
+     */
+    public FileSink(Path file, int mode, int bufferSize) throws IOException{
+        if (mode != MAPPED && mode != DIRECT)
+            throw new IllegalArgumentException("mode: " + mode);
+        if (bufferSize < STAGE_SIZE)
+            throw new IllegalArgumentException("bufferSize: " + bufferSize);
+
+        this.mode = mode;
+        this.bufferSize = bufferSize;
+        // a mapped region can be written only if the file is open for reading too
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            this.buffer = mode == MAPPED
+                    ? channel.map(FileChannel.MapMode.READ_WRITE, 0, bufferSize)
+                    : ByteBuffer.allocateDirect(bufferSize);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Works just like {@link FileSink(Path, int, int)} with buffers of 
+     * {@code DEFAULT_BUFFER_SIZE} bytes. The file is written in {@code MAPPED} mode,
+     * except on Windows, where it is written in {@code DIRECT} mode.
+     *
+     * @param file the file to write to
+     * @throws IOException if the file cannot be opened
+     */
+    public FileSink(Path file) throws IOException{
+        this(file, defaultMode(), DEFAULT_BUFFER_SIZE);
+    }
+
+
+    // a mapped file cannot be resized on Windows, so it is not cut on close
+    private static int defaultMode(){
+        return System.getProperty("os.name", "").startsWith("Windows") ? DIRECT : MAPPED;
+    }
+
+
+    /* *********************************************************************
+                       A P P E N D A B L E   M E T H O D S
+       ********************************************************************* */
+    @Override
+    public FileSink append(CharSequence csq) throws IOException{
+        if (csq == null) csq = "null";
+        return append(csq, 0, csq.length());
+    }
+
+
+    @Override
+    public FileSink append(CharSequence csq, int start, int end) throws IOException{
+        if (csq == null) csq = "null";
+        ensureOpen();
+        encoder.encode(csq, start, end);
+        return this;
+    }
+
+
+    @Override
+    public FileSink append(char c) throws IOException{
+        ensureOpen();
+        encoder.encode(c);
+        return this;
+    }
+
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return the number of bytes written
+     */
+    public long size(){
+        return bufferStart + (buffer == null ? 0 : buffer.position()) + encoder.length();
+    }
+
+
+    /**
+     * Writes the buffered text to the file. A mapped region is already part of the file,
+     * so only the text not yet copied into it is written.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void flush() throws IOException{
+        ensureOpen();
+        encoder.drain();
+        if (mode == DIRECT) writeBuffer();
+    }
+
+
+    /**
+     * Writes the buffered text to the file, cuts the file at the end of the text,
+     * forces it to the storage device and closes it. 
+     * Calling this method more than once has no effect.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException{
+        if (isClosed) return;
+        try {
+            encoder.finish();
+            long size;
+            if (mode == DIRECT){
+                writeBuffer();
+                size = bufferStart;
+            }
+            else{
+                // the last region is written out before it is let go
+                ((MappedByteBuffer) buffer).force();
+                size = bufferStart + buffer.position();
+            }
+            buffer = null;
+            
+            // every region is already forced, so this forces the new size of the file
+            channel.truncate(size);
+            channel.force(true);
+        } finally {
+            isClosed = true;
+            channel.close();
+        }
+    }
+
+
+    /* ***********************************
+         P R I V A T E   U T I L I T I E S
+       *********************************** */
+    private void ensureOpen() throws IOException{
+        if (isClosed) throw new IOException("the sink is closed");
+    }
+
+
+    /*
+     * Copies the encoded bytes into the buffer, moving on to the next buffer when it is full.
+     */
+    private void copyToBuffer(byte[] bytes, int length) throws IOException{
+        int offset = 0;
+        while (offset < length){
+            if (!buffer.hasRemaining()) nextBuffer();
+            int n = Math.min(buffer.remaining(), length - offset);
+            buffer.put(bytes, offset, n);
+            offset += n;
+        }
+    }
+
+
+    private void nextBuffer() throws IOException{
+        if (mode == DIRECT){
+            writeBuffer();
+            return;
+        }
+        // channel.force() may or may not force the changes made through a mapped region,
+        // so every region is forced by itself before it is let go. Then, the region 
+        // right after it is mapped
+        ((MappedByteBuffer) buffer).force();
+        bufferStart += buffer.position();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, bufferStart, bufferSize);
+    }
+
+
+    private void writeBuffer() throws IOException{
+        buffer.flip();
+        while (buffer.hasRemaining())
+            bufferStart += channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,287 @@
+package tabularprint;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The counters of a {@code TabularPrint}, that is how many rows it has rendered and where
+ * the time went. They are enabled by {@link TabularPrint#enableStats()}. For example
+ * <pre>
+ *     RenderStats stats = tp.enableStats();
+ *     stats.register("orders");
+ *     ...
+ *     System.out.println(stats.getRows() + " rows, " + stats.getLayoutNanos() + " ns of layout");
+ * </pre>
+ * The time of a row is split into formatting, that is the conversion of the values
+ * to text, layout, that is the split of the cells into lines, and rendering, that is
+ * the padded lines appended to the text. Values set cell by cell with
+ * {@link TabularPrint#row()} are formatted by the caller, so their formatting is not timed.
+ * <p>
+ * Rows rendered by other threads, for example by {@code printRowsParallel} or by a
+ * {@code ConcurrentTabularPrint}, are counted too, so the counters can be updated
+ * and read by many threads.
+ * <p>
+ * While the counters are enabled, every row and every {@code getString()} also emits
+ * a JFR event, {@code tabularprint.RenderRow} and {@code tabularprint.GetString},
+ * which are recorded only if they are enabled in the running recording.
+ * A table without counters does neither, and its rows cost nothing more than a check.
+ *
+ * @see TabularPrint#enableStats()
+ */
+public class RenderStats implements RenderStatsMBean {
+
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder wrappedCells = new LongAdder();
+    private final LongAdder chars = new LongAdder();
+    private final LongAdder formatNanos = new LongAdder();
+    private final LongAdder layoutNanos = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final LongAdder getStringCalls = new LongAdder();
+    private final LongAdder getStringNanos = new LongAdder();
+
+    // the text of the table, whose capacity is reported
+    private final TextBuffer text;
+
+    // the name under which the counters are registered. null when they are not registered
+    private ObjectName name = null;
+
+
+    RenderStats(TextBuffer text){
+        this.text = text;
+    }
+
+
+    /* *********************************************************************
+                                C O U N T E R S
+       ********************************************************************* */
+    @Override
+    public long getRows(){
+        return rows.sum();
+    }
+
+
+    @Override
+    public long getLines(){
+        return lines.sum();
+    }
+
+
+    @Override
+    public long getWrappedCells(){
+        return wrappedCells.sum();
+    }
+
+
+    @Override
+    public long getChars(){
+        return chars.sum();
+    }
+
+
+    @Override
+    public long getFormatNanos(){
+        return formatNanos.sum();
+    }
+
+
+    @Override
+    public long getLayoutNanos(){
+        return layoutNanos.sum();
+    }
+
+
+    @Override
+    public long getRenderNanos(){
+        return renderNanos.sum();
+    }
+
+
+    @Override
+    public long getGetStringCalls(){
+        return getStringCalls.sum();
+    }
+
+
+    @Override
+    public long getGetStringNanos(){
+        return getStringNanos.sum();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * The capacity is read without any synchronization with the thread that prints
+     * the rows, so it may be slightly out of date.
+     */
+    @Override
+    public long getBufferCapacity(){
+        return text.capacity();
+    }
+
+
+    @Override
+    public void reset(){
+        rows.reset();
+        lines.reset();
+        wrappedCells.reset();
+        chars.reset();
+        formatNanos.reset();
+        layoutNanos.reset();
+        renderNanos.reset();
+        getStringCalls.reset();
+        getStringNanos.reset();
+    }
+
+
+    @Override
+    public String toString(){
+        return "rows=" + getRows() + ", lines=" + getLines() + ", wrappedCells=" + getWrappedCells()
+                + ", chars=" + getChars() + ", formatNanos=" + getFormatNanos()
+                + ", layoutNanos=" + getLayoutNanos() + ", renderNanos=" + getRenderNanos()
+                + ", getStringCalls=" + getGetStringCalls()
+                + ", getStringNanos=" + getGetStringNanos();
+    }
+
+
+    /* *********************************************************************
+                                    J M X
+       ********************************************************************* */
+    /**
+     * Registers the counters with the platform MBean server, under the name
+     * {@code tabularprint:type=RenderStats,name=<name>}. If they are already registered,
+     * they are registered again under the new name.
+     * <p>
+     * The MBean server holds the registered counters, and through them the text of 
+     * the table, whose capacity they report. So the text is not collected, even if 
+     * the table is no longer used, until the counters are {@link unregister() unregistered}.
+     *
+     * @param name the name of the table
+     * @return the name of the registered MBean
+     * @throws IllegalArgumentException if the name is not valid, or if another table
+     * is registered under the same name
+     */
+    public synchronized ObjectName register(String name){
+        unregister();
+        try {
+            ObjectName objectName = new ObjectName("tabularprint:type=RenderStats,name="
+                                                                    + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.name = objectName;
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalArgumentException("cannot register " + name, e);
+        }
+    }
+
+
+    /**
+     * Unregisters the counters from the platform MBean server, if they are registered.
+     */
+    public synchronized void unregister(){
+        if (name == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            // unregistered by someone else, there is nothing left to do
+        }
+        name = null;
+    }
+
+
+    /* *********************************************************************
+                                R E C O R D I N G
+       ********************************************************************* */
+    /*
+     * The following methods are called by the renderers. Every phase is timed from the
+     * given start, and the end of the phase is returned as the start of the next one.
+     */
+    long formatted(long start){
+        long end = System.nanoTime();
+        formatNanos.add(end - start);
+        return end;
+    }
+
+
+    long laidOut(long start, int wrapped){
+        long end = System.nanoTime();
+        layoutNanos.add(end - start);
+        wrappedCells.add(wrapped);
+        return end;
+    }
+
+
+    long rendered(long start){
+        long end = System.nanoTime();
+        renderNanos.add(end - start);
+        return end;
+    }
+
+
+    RowEvent beginRow(){
+        RowEvent event = new RowEvent();
+        event.begin();
+        return event;
+    }
+
+
+    void endRow(RowEvent event, int rowLines, long rowChars){
+        rows.increment();
+        lines.add(rowLines);
+        chars.add(rowChars);
+        if (event.shouldCommit()){
+            event.lines = rowLines;
+            event.chars = rowChars;
+            event.commit();
+        }
+    }
+
+
+    GetStringEvent beginGetString(){
+        GetStringEvent event = new GetStringEvent();
+        event.begin();
+        return event;
+    }
+
+
+    void endGetString(GetStringEvent event, long start, int length){
+        getStringNanos.add(System.nanoTime() - start);
+        getStringCalls.increment();
+        if (event.shouldCommit()){
+            event.length = length;
+            event.commit();
+        }
+    }
+
+
+    /* *****************************
+         J F R   E V E N T S
+       ***************************** */
+    @Name("tabularprint.RenderRow")
+    @Label("Render Row")
+    @Category("TabularPrint")
+    static final class RowEvent extends Event{
+        @Label("Lines")
+        int lines;
+
+        @Label("Characters")
+        @Description("UTF-16 chars, not bytes")
+        long chars;
+    }
+
+
+    @Name("tabularprint.GetString")
+    @Label("Get String")
+    @Category("TabularPrint")
+    static final class GetStringEvent extends Event{
+        @Label("Length")
+        int length;
+    }
+}
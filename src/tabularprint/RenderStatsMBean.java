@@ -0,0 +1,89 @@
+package tabularprint;
+
+/**
+ * The management interface of {@link RenderStats}, that is the attributes of a table
+ * registered by {@link RenderStats#register(String)}.
+ *
+ * @see RenderStats
+ */
+public interface RenderStatsMBean {
+
+    /**
+     * Returns the number of rows rendered.
+     *
+     * @return the number of rows
+     */
+    long getRows();
+
+    /**
+     * Returns the number of lines of the rendered rows, not counting the row separators.
+     *
+     * @return the number of lines
+     */
+    long getLines();
+
+    /**
+     * Returns the number of cells that took more than one line.
+     *
+     * @return the number of wrapped cells
+     */
+    long getWrappedCells();
+
+    /**
+     * Returns the number of characters of the rendered rows, row separators included.
+     * These are Java {@code char}s, that is UTF-16 code units, not bytes: a character 
+     * outside the Basic Multilingual Plane, like most emoji, counts as two, and the text 
+     * encoded as UTF-8 is usually longer.
+     *
+     * @return the number of characters
+     */
+    long getChars();
+
+    /**
+     * Returns the time spent converting the values of the rows to text, in nanoseconds.
+     *
+     * @return the formatting time
+     */
+    long getFormatNanos();
+
+    /**
+     * Returns the time spent splitting the cells into lines, in nanoseconds.
+     *
+     * @return the layout time
+     */
+    long getLayoutNanos();
+
+    /**
+     * Returns the time spent appending the padded lines to the text, in nanoseconds.
+     *
+     * @return the rendering time
+     */
+    long getRenderNanos();
+
+    /**
+     * Returns the number of invocations of {@code getString()}.
+     *
+     * @return the number of invocations
+     */
+    long getGetStringCalls();
+
+    /**
+     * Returns the time spent in {@code getString()}, in nanoseconds.
+     *
+     * @return the time spent in {@code getString()}
+     */
+    long getGetStringNanos();
+
+    /**
+     * Returns the number of characters that the text of the table can hold
+     * before it grows again.
+     *
+     * @return the capacity of the text
+     */
+    long getBufferCapacity();
+
+    /**
+     * Sets all counters to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,69 @@
+package tabularprint;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a getter, or a record component, as a column of a {@link TypedTabularPrint}.
+ * <p>
+ * The getters of a class are columns only if they are annotated. The components of
+ * a record are always columns, in the order of their declaration, and the annotation
+ * only changes their defaults. For example
+ * <pre>
+ *     public record Order(int id,
+ *                         &#64;TableColumn(header = "customer name", width = 20) String customer,
+ *                         double total){}
+ * </pre>
+ *
+ * @see TypedTabularPrint
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.RECORD_COMPONENT})
+public @interface TableColumn {
+
+    /**
+     * The header of the column. The default is the name of the property, for example
+     * {@code total} for {@code getTotal()}.
+     *
+     * @return the header of the column
+     */
+    String header() default "";
+
+    /**
+     * The width of the column. The default, or any value less than 1, is wide enough
+     * for the header and for any value of an integer, boolean or char type, 
+     * and 12 characters for any other type.
+     *
+     * @return the width of the column
+     */
+    int width() default 0;
+
+    /**
+     * Sizes the column to its data, as {@link TabularPrint.Column#autoWidth()} does,
+     * instead of giving it a fixed width. The rows are held in memory until the width 
+     * is known, see {@link TabularPrint#setAutoWidthSample(int)}.
+     *
+     * @return true if the column is sized to its data
+     */
+    boolean autoWidth() default false;
+
+    /**
+     * The number of decimals of a floating-point column. The default, or any negative value,
+     * means 2 decimals for {@code float} and {@code double} values.
+     *
+     * @return the number of decimals
+     */
+    int decimals() default -1;
+
+    /**
+     * The position of a getter among the columns, in ascending order. Getters with
+     * the same position are ordered by name. It has no effect on record components.
+     *
+     * @return the position of the column
+     */
+    int order() default 0;
+}
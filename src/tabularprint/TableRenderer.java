@@ -0,0 +1,134 @@
+package tabularprint;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.List;
+
+/**
+ * Prints tables with the layout of a {@link TableSpec}. Every row is rendered right away
+ * into the text of the renderer, and the whole table, that is the head of the spec, 
+ * the rows and the bottom border, is returned by {@link getString()}.
+ * <p>
+ * A renderer is not thread-safe. Threads share the spec, and every thread prints
+ * with a renderer of its own. After {@link clear()}, the renderer prints a new table,
+ * reusing the memory of the previous one.
+ *
+ * @see TableSpec#newRenderer()
+ */
+public final class TableRenderer {
+
+    private final TableSpec spec;
+
+    // the text of the rows, without the head and the bottom border
+    private final TextBuffer text = new TextBuffer();
+
+    private final TabularPrint.Renderer renderer;
+
+    // true once a row is printed, so that the next one is preceded by a row separator
+    private boolean hasRows = false;
+
+
+    TableRenderer(TableSpec spec){
+        this.spec = spec;
+        this.renderer = spec.newRenderer(text);
+    }
+
+
+    /* *********************************************************************
+                      P R I N T I N G   M E T H O D S
+       ********************************************************************* */
+    /**
+     * Prints the given values as consecutive cells in a single row,
+     * just like {@link TabularPrint#printRow(Object[])}.
+     *
+     * @param cells the values to be printed
+     * @return this renderer for chain invocation
+     */
+    public TableRenderer printRow(Object... cells){
+        renderer.render(cells, hasRows && spec.rowSeparator() != null);
+        hasRows = true;
+        return this;
+    }
+
+
+    /**
+     * Prints the given values as consecutive cells in a single row.
+     * The same as {@link printRow(Object[])} except for the type parameter.
+     *
+     * @param list the list of values to be printed
+     * @return this renderer for chain invocation
+     */
+    public TableRenderer printRow(List<Object> list){
+        return printRow(list.toArray());
+    }
+
+
+    /**
+     * Prints the given rows, just like {@link TabularPrint#printRows(Iterable)}.
+     * Every row is either an array of values, or a list of values, or a single value.
+     *
+     * @param rows the rows to be printed
+     * @return this renderer for chain invocation
+     */
+    public TableRenderer printRows(Iterable<?> rows){
+        for (Object row : rows)
+            printRow(TabularPrint.toCells(row));
+        return this;
+    }
+
+
+    /**
+     * Discards the rows printed so far, so that a new table can be printed. 
+     * The text keeps the memory it has grown to.
+     *
+     * @return this renderer for chain invocation
+     */
+    public TableRenderer clear(){
+        text.setLength(0);
+        hasRows = false;
+        return this;
+    }
+
+
+    /* *********************************************************************
+                             G E T   M E T H O D
+       ********************************************************************* */
+    /**
+     * Returns the table as a {@code String}, with all rows printed so far.
+     * The head of the spec is always there, even if no rows are printed.
+     * This method does not affect the state of this renderer, so rows can still be
+     * printed after its invocation.
+     *
+     * @return the table as a {@code String}
+     * @throws OutOfMemoryError if the table is too large for a {@code String}. 
+     * Use {@link writeTo(Appendable)} for such tables
+     */
+    public String getString(){
+        String head = spec.getHead();
+        char[] bottom = spec.bottomBorder();
+        long length = head.length() + text.length() + (bottom == null ? 0 : bottom.length);
+        if (length > Integer.MAX_VALUE - 8)
+            throw new OutOfMemoryError("the table is too large for a String: " + length);
+        StringBuilder sb = new StringBuilder((int) length);
+        sb.append(head);
+        text.appendTo(sb, 0, text.length());
+        if (bottom != null) sb.append(bottom);
+        return sb.toString();
+    }
+
+
+    /**
+     * Writes the table to the given output, with all rows printed so far, without creating
+     * a {@code String} of the whole table. The text of the rows is written chunk by chunk, 
+     * so there is no limit on its size. The output is neither flushed nor closed.
+     *
+     * @param out the output to write to, for example a {@code Writer} or a {@link FileSink}
+     * @throws IOException if the output cannot be written
+     */
+    public void writeTo(Appendable out) throws IOException{
+        out.append(spec.getHead());
+        text.writeTo(out, 0, text.length());
+        char[] bottom = spec.bottomBorder();
+        if (bottom != null) out.append(CharBuffer.wrap(bottom));
+    }
+}
@@ -0,0 +1,81 @@
+package tabularprint;
+
+/**
+ * The compiled layout of a table, that is its columns, its title and its decoration,
+ * created by {@link TabularPrint#compile()}.
+ * <p>
+ * Everything a row needs is computed once, when the spec is created: the data columns 
+ * and the separators between them, flattened into arrays that renderers index by column,
+ * the padding of every column, the horizontal lines and the text above the first row, 
+ * that is the border, the title and the headers. Rows are then printed by renderers, 
+ * which only read the spec.
+ * <p>
+ * The layout is kept in a private copy of the table. The copy is frozen when the spec 
+ * is created, it is never handed out, and nothing changes it afterwards, so the spec 
+ * is immutable in effect and it can be shared by any number of threads. A renderer is not,
+ * so every thread creates renderers of its own by {@link newRenderer()}. Renderers are
+ * cheap, and a renderer cleared by {@link TableRenderer#clear()} prints the next table 
+ * in the memory of the previous one.
+ *
+ * @see TabularPrint#compile()
+ * @see TableRenderer
+ */
+public final class TableSpec {
+
+    // a private copy of the table, whose layout is frozen. It is only read from now on
+    private final TabularPrint table;
+
+    // the border, the title and the headers
+    private final String head;
+
+    // the line between rows and the bottom border. null if they are not shown
+    private final char[] rowSeparator;
+    private final char[] bottomBorder;
+
+
+    TableSpec(TabularPrint table){
+        this.table = table;
+        this.head = table.freezeLayout();
+        this.rowSeparator = table.rowSeparator();
+        this.bottomBorder = table.bottomBorder();
+    }
+
+
+    /**
+     * Creates a new renderer, that prints tables with the layout of this spec.
+     * A renderer is meant to be used by a single thread at a time.
+     *
+     * @return the new renderer
+     */
+    public TableRenderer newRenderer(){
+        return new TableRenderer(this);
+    }
+
+
+    /**
+     * Returns the text above the first row, that is the border, the title and the headers.
+     *
+     * @return the text above the first row
+     */
+    public String getHead(){
+        return head;
+    }
+
+
+    /* *********************************************************************
+                         H O O K S   F O R   R E N D E R E R S
+       ********************************************************************* */
+    TabularPrint.Renderer newRenderer(TextBuffer text){
+        return table.newRenderer(text);
+    }
+
+
+    char[] rowSeparator(){
+        return rowSeparator;
+    }
+
+
+    char[] bottomBorder(){
+        return bottomBorder;
+    }
+}
@@ -1,9 +1,34 @@
 package tabularprint;
 
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *
@@ -20,6 +45,23 @@ public class TabularPrint {
     public static final int VERTICAL_BOTTOM = 5;
     public static final int VERTICAL_MIDDLE = 6;
     
+    // powers of ten for the rounding of numbers, from 10^0 up to 10^18
+    private static final long[] POWERS_OF_TEN = new long[19];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+    
+    // the minimum number of rows rendered by a single task of printRowsParallel()
+    private static final int MIN_PARALLEL_CHUNK = 256;
+    
+    /** The default number of buffered characters before they are written to the output sink. */
+    public static final int DEFAULT_FLUSH_THRESHOLD = 64 * 1024;
+    
+    // the size of the array that text is encoded into by getBytes() and writeTo()
+    private static final int DEFAULT_ENCODER_STAGE = 16 * 1024;
+    
     private String horizontal = "\u2500";        // ─
     private String cross = "\u253C";             // ┼
     private String horizontalStart = "\u251C";   // ├
@@ -36,14 +78,34 @@ public class TabularPrint {
     
     private String paddingChar = " ";
     
+    // the horizontal lines of the table, created on first use. See printRule()
+    private static final int TOP_RULE = 0;         // the top border
+    private static final int TITLE_TOP_RULE = 1;   // the top border above the title
+    private static final int TITLE_RULE = 2;       // the line below the title
+    private static final int ROW_RULE = 3;         // the line between rows and below the headers
+    private static final int BOTTOM_RULE = 4;      // the bottom border
+    private final char[][] rules = new char[5][];
+    
     // data columns and column separators
     private final ArrayList<Column> allColumns = new ArrayList<>();
     
     // data columns only, excluding separators
     private final ArrayList<Column> dataColumns = new ArrayList<>();
     
-    // the final text to be printed
-    private final StringBuilder textBuilder = new StringBuilder();
+    // the data columns and the separators around them, as printed on every line of a row:
+    // gaps[i] is the text before column i, and the last gap ends the line. 
+    // Created on first use, see compileColumns()
+    private Column[] lineColumns = null;
+    private String[] gaps = null;
+    
+    // the final text to be printed, kept in chunks
+    private final TextBuffer textBuilder = new TextBuffer();
+    
+    // the output sink in streaming mode. null means that everything is kept in textBuilder
+    private final Appendable out;
+    
+    // in streaming mode, textBuilder is written to the sink once it grows beyond this
+    private final int flushThreshold;
     
     // the table title. null means there is no title
     private String title = null;
@@ -56,6 +118,126 @@ public class TabularPrint {
     private boolean showRowSeparators = false;// show or not a line separator between rows
     private boolean showTitleSeparator = true;
     private boolean showHeadersSeparator = true;
+    
+    // renders the rows into textBuilder
+    private final Renderer renderer = new Renderer(textBuilder);
+    
+    // the row returned by row(), reused for every row
+    private final Row rowWriter = new Row();
+    
+    // auxiliar booleans to control the printing of row separators and the bottom border
+    private boolean hasRows = false;
+    private boolean isFinished = false;
+    
+    // the last String returned by getString(), with the length of the text and 
+    // the bottom border it was made of
+    private String snapshot = null;
+    private long snapshotLength = 0;
+    private char[] snapshotBorder = null;
+    
+    // the start of the text to be returned by getNewText()
+    private long newTextStart = 0;
+    
+    // the text above the first row, once the layout is frozen by freezeLayout()
+    private String frozenHead = null;
+    
+    // the rows held back until the widths of the auto-sized columns are known. Every row 
+    // is either the text of its cells or the padding of a blank row. null when no rows are held
+    private ArrayList<Object> heldRows = null;
+    
+    // the counters of the rendered rows. null unless enableStats() is called
+    private RenderStats stats = null;
+    
+    // the number of rows expected, to size the text and the held rows. See setExpectedRows()
+    private int expectedRows = 0;
+    
+    // the column and the layout of the title, created with the first title
+    private Column titleColumn = null;
+    private CellLayout titleLayout = null;
+    
+    // the sides of the border, added to the columns with the first row. null until then
+    private Column borderSide = null;
+    
+    // true once the text is handed out by snapshot(), so that its chunks are never reused
+    private boolean isShared = false;
+    
+    // the number of rows to size the auto-sized columns from. 0 means all rows
+    private int autoWidthSample = 0;
+    
+    // true once the widths of the auto-sized columns are fixed
+    private boolean isSized = false;
+
+    
+    /* *********************************************************************
+                            C O N S T R U C T O R S
+       ********************************************************************* */
+    /**
+     * Creates a {@code TabularPrint} that keeps the whole table in memory.
+     * The table is retrieved by {@link getString()}.
+     */
+    public TabularPrint(){
+        this.out = null;
+        this.flushThreshold = 0;
+    }
+    
+    
+    /**
+     * Creates a {@code TabularPrint} that writes the table to the given sink, as rows 
+     * are printed. Only a bounded buffer is kept in memory, so the memory needed does
+     * not depend on the number of rows. 
+     * The table must be completed by calling {@link finish()}.
+     * 
+     * @param out the sink to write to, for example a {@code Writer} or a {@code StringBuilder}
+     * @param flushThreshold the number of buffered characters before they are written to 
+     * the sink
+     */
+    public TabularPrint(Appendable out, int flushThreshold){
+        if (out == null)
+            throw new NullPointerException("out");
+        if (flushThreshold < 0)
+            throw new IllegalArgumentException("flushThreshold: " + flushThreshold);
+        this.out = out;
+        this.flushThreshold = flushThreshold;
+    }
+    
+    
+    /**
+     * Works just like {@link TabularPrint(Appendable, int)} with the flush threshold 
+     * set to {@code DEFAULT_FLUSH_THRESHOLD}.
+     * 
+     * @param out the sink to write to, for example a {@code Writer} or a {@code StringBuilder}
+     */
+    public TabularPrint(Appendable out){
+        this(out, DEFAULT_FLUSH_THRESHOLD);
+    }
+    
+    
+    /**
+     * Works just like {@link TabularPrint(Appendable)} but the table is written to the
+     * given stream, encoded as UTF-8. The text is encoded straight into bytes, without
+     * a {@code Writer} in between. The stream is flushed but not closed by {@link finish()}.
+     * 
+     * @param out the stream to write to
+     */
+    public TabularPrint(OutputStream out){
+        this(new Utf8.StreamOutput(out));
+    }
+    
+    
+    /**
+     * Creates a table whose rows are objects of the given type, either a record or a class
+     * with getters annotated by {@link TableColumn}. The columns and their headers are 
+     * derived from the type. See {@link TypedTabularPrint}.
+     * 
+     * @param <T> the type of the rows
+     * @param type the type of the rows
+     * @return a table that prints objects of the given type
+     * @throws IllegalArgumentException if the type has no columns, or if its accessors
+     * are not accessible
+     */
+    public static <T> TypedTabularPrint<T> forType(Class<T> type){
+        return new TypedTabularPrint<>(type);
+    }
 
     /* *********************************************************************
                               a d d C o l u m n ()
@@ -84,6 +266,7 @@ public class TabularPrint {
         c.isSeparator = false;
         dataColumns.add(c);
         allColumns.add(c);
+        invalidateRules();
         return c;
     }
     
@@ -166,11 +349,12 @@ public class TabularPrint {
      */
     public void addColumnSeparator(String separatorChar){
         Column c = new Column();
-        c.width(separatorChar.length());
+        c.width(DisplayWidth.of(separatorChar, 0, separatorChar.length()));
         c.header(separatorChar);
         c.horAlign = HORIZONTAL_CENTER;
         c.isSeparator = true;
         allColumns.add(c);
+        invalidateRules();
     }
     
     
@@ -239,6 +423,54 @@ public class TabularPrint {
     public void showHeadersSeparator(boolean b){ showHeadersSeparator = b; }
     
     
+    /**
+     * Sets the number of rows that the widths of auto-sized columns are computed from.
+     * The rows are held in memory until that many rows are printed, and then the widths 
+     * are fixed and the held rows are printed. Rows after that are printed as usual, 
+     * and their text is wrapped if it does not fit. 
+     * The default is 0, which means that all rows are held until the text is retrieved, 
+     * for example by {@link getString()} or {@link getNewText()}, or until {@link finish()} 
+     * is called.
+     * 
+     * @param rows the number of rows to size the columns from, or 0 for all rows
+     * @see Column#autoWidth(int, int)
+     */
+    public void setAutoWidthSample(int rows){
+        if (rows < 0)
+            throw new IllegalArgumentException("rows: " + rows);
+        autoWidthSample = rows;
+    }
+    
+    
+    /**
+     * Sets the number of rows that this table is expected to print. It is only a hint, 
+     * so that the text is allocated at once, instead of growing row by row, 
+     * and so is the memory for the rows held by auto-sized columns. 
+     * Tables reused by {@link clearRows()} keep the text they have grown to, anyway.
+     * A table that writes to an output sink never keeps more text than its flush threshold,
+     * so its text is allocated up to the threshold, no matter how many rows are expected.
+     * 
+     * @param rows the number of rows expected, or 0 for no hint
+     * @throws IllegalArgumentException if {@code rows} is negative
+     */
+    public void setExpectedRows(int rows){
+        if (rows < 0)
+            throw new IllegalArgumentException("rows: " + rows);
+        expectedRows = rows;
+        
+        // every row takes at least a line, and a row separator if any
+        long lineLength = 1;
+        for (Column col : allColumns)
+            lineLength += col.width;
+        if (borderSide == null && showBorder) lineLength += 2L * vertical.length();
+        long rowLength = showRowSeparators ? 2 * lineLength : lineLength;
+        long capacity = textBuilder.length() + rows * rowLength;
+        // in streaming mode, the text is written out once it grows beyond the threshold
+        if (out != null) capacity = Math.min(capacity, flushThreshold);
+        textBuilder.ensureCapacity(capacity);
+    }
+    
+    
     /* *********************************************************************
                       P R I N T I N G   M E T H O D S
        ********************************************************************* */
@@ -249,143 +481,166 @@ public class TabularPrint {
      * @param cells the values to be printed
      */
     public void printRow(Object... cells){
-        // 1. convert cells to array
-        // -------------------------
-        ArrayList<Object> arraylist = new ArrayList<>();
-        for (Object obj : cells){
-            if (obj == null){
-                arraylist.add("");
-            }
-            else if (obj instanceof Object[]){
-                // cast to Object[] and add all to arraylist
-                arraylist.addAll(Arrays.asList((Object[]) obj));
-            }
-            // if a cell is array then iterate over the array's elements
-            else if (obj.getClass().isArray()){
-                int arrlength = Array.getLength(obj);
-                for(int i = 0; i < arrlength; i++)
-                   arraylist.add(Array.get(obj, i));
-            }
-            else arraylist.add(obj);
-        }
-        
-        Object[] array = arraylist.toArray();
-        
-        // 2. check for the number of elements
-        // --------------------------------
-        // provided data is less than expected
-        // we should pad the missing data with spaces
-        if (array.length < dataColumns.size()){
-            Object[] padCells = new Object[dataColumns.size()];
-            System.arraycopy(array, 0, padCells, 0, array.length);
-            for (int i = array.length; i < dataColumns.size(); i++)
-                padCells[i] = " ".repeat(dataColumns.get(i).width);
-            array = padCells;
-        }
-        // provided data is more than expected
-        // we should ignore the excess data
-        if (array.length > dataColumns.size()){
-            Object[] newCells = new Object[dataColumns.size()];
-            System.arraycopy(array, 0, newCells, 0, dataColumns.size());
-            array = newCells;
-        }
-        
-        
-        // 3. print headers & title
-        // ------------------------
-        // for the very first time print the headers and the title
-        if (isFirstTime){
-            isFirstTime = false;
-            if (showBorder) addBorderSides();
-            printHeadersAndTitle();
+        // 1. convert the cells to text. Arrays among the cells are flattened, 
+        // missing data is left blank and excess data is ignored
+        // ----------------------------------------------------------------------
+        renderer.stageCells(cells);
+        
+        // 2. print the row
+        // ----------------
+        printPreparedRow();
+    }
+    
+    
+    /**
+     * Prints the given values as consecutive cells in a single row.
+     * The same as {@link printRow(Object[])} except for the type parameter. This method accepts
+     * a list of printing elements, instead of an array.
+     * 
+     * @param list the list of values to be printed
+     */
+    public void printRow(List<Object> list){
+        Object[] array = new Object[list.size()];
+        array = list.toArray(array);
+        TabularPrint.this.printRow(array);
+    }
+    
+    
+    /**
+     * Prints the given rows, one after the other.
+     * Every row is printed just like {@link printRow(Object[])} would print it, but the
+     * cells are taken straight from the row arrays, without any intermediate collections.
+     * 
+     * @param rows the rows to be printed
+     */
+    public void printRows(Object[][] rows){
+        for (Object[] cells : rows)
+            printRow(cells);
+    }
+    
+    
+    /**
+     * Prints the given rows, one after the other.
+     * Every element is a row. It can be an {@code Object[]}, a {@code List} or 
+     * an array of primitives. Any other element is printed as a row with a single cell.
+     * 
+     * @param rows the rows to be printed
+     */
+    public void printRows(Iterable<?> rows){
+        for (Object cells : rows)
+            printRow(toCells(cells));
+    }
+    
+    
+    /**
+     * Prints the given columns of data, that is every argument is a whole column 
+     * and not a single cell. The first row consists of the first element of every column, 
+     * the second row of the second element and so on. 
+     * Columns can be arrays of {@code int}, {@code long}, {@code float}, {@code double} 
+     * or any {@code Object[]}, for example a {@code String[]}. Numbers are formatted straight
+     * from the primitive values, without creating any row arrays.
+     * If a column is shorter than the others, its missing cells are left blank.
+     * 
+     * @param columns the columns of data to be printed
+     * @throws IllegalArgumentException if a column is not one of the supported array types
+     */
+    public void printColumns(Object... columns){
+        // validate the columns and find the number of rows
+        int numOfRows = 0;
+        for (Object column : columns){
+            if (!(column instanceof int[] || column instanceof long[] || column instanceof float[] 
+                    || column instanceof double[] || column instanceof Object[]))
+                throw new IllegalArgumentException("not a supported column: " + column);
+            numOfRows = Math.max(numOfRows, Array.getLength(column));
         }
         
-        // 4. convert the Object array to a String array
-        // ---------------------------------------------
-        String[] forPrint = new String[dataColumns.size()];
-        for (int i = 0; i < array.length; i++){
-            forPrint[i] = objectToString(array[i], dataColumns.get(i));
-        }
-        
-        // 5. emulate printing in order to count the number of lines needed for each cell
-        // ------------------------------------------------------------------------------
-        int[] numOfLines = new int[array.length];// these are the number of lines for each cell
-        // initialize number of lines to 1
-        for (int j = 0; j < numOfLines.length; j++)
-            numOfLines[j] = 1;
-        
-        // make a copy of the elements to print,
-        // to be used by the printing emulation
-        String[] forPrint2 = new String[forPrint.length];
-        System.arraycopy(forPrint, 0, forPrint2, 0, forPrint.length);
-        
-        // do the printing emulation
-        while (!isEmpty(forPrint2)){
-            for (int i = 0; i < forPrint2.length; i++){
-                forPrint2[i] = printCell(dataColumns.get(i), forPrint2[i], false);
-                if (!forPrint2[i].isEmpty())
-                    numOfLines[i]++;
-            }
-        } // at this point numOfLines[] contains the number of lines for each cell
-        
-        // 6. pad the rows according to vertical aligment
-        // -------------------------------------------
-        // find the maximum number of lines among all cells
-        int maxLines = 0;
-        for (int lines: numOfLines){
-            if (lines > maxLines)
-                maxLines = lines;
-        }
-        
-        // add the proper number of spaces before the data to print
-        for (int i = 0; i < forPrint.length; i++){
-            switch (dataColumns.get(i).verAlign) {
-                case VERTICAL_TOP -> {
-                    // do nothing
+        for (int r = 0; r < numOfRows; r++){
+            Row row = row();
+            for (Object column : columns){
+                if (column instanceof int[]){
+                    int[] values = (int[]) column;
+                    if (r < values.length) row.intCell(values[r]); else row.blank();
                 }
-                case VERTICAL_BOTTOM -> {
-                    int num = maxLines - numOfLines[i];
-                    forPrint[i] = " ".repeat(num*dataColumns.get(i).width).concat(forPrint[i]);
+                else if (column instanceof long[]){
+                    long[] values = (long[]) column;
+                    if (r < values.length) row.longCell(values[r]); else row.blank();
                 }
-                case VERTICAL_MIDDLE -> {
-                    int num = (maxLines - numOfLines[i]) / 2;
-                    forPrint[i] = " ".repeat(num*dataColumns.get(i).width).concat(forPrint[i]);
+                else if (column instanceof float[]){
+                    float[] values = (float[]) column;
+                    if (r < values.length) row.floatCell(values[r]); else row.blank();
                 }
-                default -> {
-                    // do nothing, that is the same as VERTICAL_TOP
+                else if (column instanceof double[]){
+                    double[] values = (double[]) column;
+                    if (r < values.length) row.doubleCell(values[r]); else row.blank();
                 }
-            }
-        }
-        
-        // 7. do the actual printing
-        // ----------------------
-        while (!isEmpty(forPrint)){
-            int colIndex = 0;
-            for (Column col : allColumns) {
-                if (col.isSeparator)
-                    printCell(col, col.header, true);
                 else{
-                    forPrint[colIndex] = printCell(col, forPrint[colIndex], true);
-                    colIndex++;
+                    Object[] values = (Object[]) column;
+                    if (r < values.length) row.cell(values[r]); else row.blank();
                 }
             }
-            textBuilder.append("\n");
+            row.end();
         }
-        if (showRowSeparators) printRowSeparator();
     }
     
     
     /**
-     * Prints the given values as consecutive cells in a single row.
-     * The same as {@link printRow(Object[])} except for the type parameter. This method accepts
-     * a list of printing elements, instead of an array.
+     * Works just like {@link printRowsParallel(List, ForkJoinPool)} 
+     * on the common {@code ForkJoinPool}.
      * 
-     * @param list the list of values to be printed
+     * @param rows the rows to be printed
      */
-    public void printRow(List<Object> list){
-        Object[] array = new Object[list.size()];
-        array = list.toArray(array);
-        TabularPrint.this.printRow(array);
+    public void printRowsParallel(List<?> rows){
+        printRowsParallel(rows, ForkJoinPool.commonPool());
+    }
+    
+    
+    /**
+     * Prints the given rows, just like {@link printRows(Iterable)}, but the rows
+     * are rendered in parallel. The rows are split into chunks and every chunk is rendered 
+     * into its own buffer, on the given pool. Then, the chunks are appended in order, 
+     * so the result is exactly the same as printing the rows one by one.
+     * <p>
+     * This is worth it for large tables, with many thousands of rows. The headers, the title 
+     * and the borders are printed as usual. A list without fast random access, 
+     * like a {@code LinkedList}, is copied into an array first.
+     * 
+     * @param rows the rows to be printed
+     * @param pool the pool to render the rows on
+     */
+    public void printRowsParallel(List<?> rows, ForkJoinPool pool){
+        // with a single thread or a few rows, there is nothing to gain. Rows that size 
+        // the columns are held one by one
+        if (pool.getParallelism() == 1 || rows.size() < 2 * MIN_PARALLEL_CHUNK || isSizing()){
+            printRows(rows);
+            return;
+        }
+        
+        // the tasks read the rows by index, which is linear in a linked list
+        if (!(rows instanceof RandomAccess))
+            rows = Arrays.asList(rows.toArray());
+        
+        boolean separatorBeforeFirst = startRow();
+        prepareColumns();
+        
+        int chunkSize = Math.max(MIN_PARALLEL_CHUNK,
+                                    rows.size() / (4 * pool.getParallelism()) + 1);
+        TextBuffer[] chunks = new TextBuffer[(rows.size() + chunkSize - 1) / chunkSize];
+        pool.invoke(new RenderTask(this, rows, chunks, chunkSize, 0, chunks.length,
+                                            separatorBeforeFirst, showRowSeparators));
+        
+        for (TextBuffer chunk : chunks){
+            if (out == null){
+                textBuilder.append(chunk);
+                continue;
+            }
+            // in streaming mode, the chunks are written straight to the sink
+            flushBuffer();
+            try {
+                chunk.writeTo(out, 0, chunk.length());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
     
     
@@ -398,6 +653,12 @@ public class TabularPrint {
      * @param padd the repeated String that fills the 'empty' row
      */
     public void printBlankRow(String padd){
+        // the width of the columns is not known yet
+        if (isSizing()){
+            holdRow(padd);
+            return;
+        }
+        
         String[] blanks = new String[dataColumns.size()];
         int i = 0;
         for (Column col : dataColumns){
@@ -417,6 +678,27 @@ public class TabularPrint {
     }
     
     
+    /**
+     * Starts a new row, to be filled cell by cell. For example
+     * <pre>
+     *     tp.row().intCell(10).text("First Name").doubleCell(123.45).end();
+     * </pre>
+     * prints the same row as {@code tp.printRow(10, "First Name", 123.45)}, but numbers
+     * are formatted straight from the primitive values, without boxing and without
+     * any intermediate arrays or collections.
+     * <p>
+     * The same {@link Row} object is returned every time, so a row must be ended
+     * by {@link Row#end()} before the next one is started.
+     * 
+     * @return the row for chain invocation
+     */
+    public Row row(){
+        renderer.prepareRow();
+        rowWriter.index = 0;
+        return rowWriter;
+    }
+    
+    
     /* *********************************************************************
                              G E T   M E T H O D
        ********************************************************************* */
@@ -429,159 +711,594 @@ public class TabularPrint {
      * {@code TabularPrint} after the first invocation of this method.
      * For example, we cannot alter the {@code showHeaders(boolean)}
      * behavior after calling the {@code getString()} method.
+     * <p>
+     * The returned {@code String} is kept, and it is returned again by the next invocations,
+     * for as long as nothing is printed in between. 
      * 
-     * @return 
+     * @return the table as a {@code String}
+     * @throws IllegalStateException if this {@code TabularPrint} writes to an output sink
+     * @see getNewText()
      */
     public String getString(){
-        if (showRowSeparators){// in this case, we have to remove the last row separator
-            // count the row width
-            int rowWidth = 0;
-            for (Column col : allColumns)
-                rowWidth += col.width;
-            textBuilder.delete(textBuilder.length() - rowWidth - 1, textBuilder.length());
-        }
+        if (stats == null) return currentString();
         
-        // draw the do
-        if (showBorder){ // regardless of showHeaders
-            for (int i = 0; i < allColumns.size(); i++){
-                Column col = allColumns.get(i);
-
-                if (col.isSeparator && col.header.equals(vertical) && i == 0)
-                    textBuilder.append(downLeftCorner);
-                else if (col.isSeparator && col.header.equals(vertical) &&
-                                                                    i == allColumns.size() - 1)
-                    textBuilder.append(downRightCorner);
-                else if (col.isSeparator && col.header.equals(vertical))
-                    textBuilder.append(horizontalUp);
-                else
-                    textBuilder.append(horizontal.repeat(col.width));
-            }
-            textBuilder.append("\n");
-        }
-            
-        return textBuilder.toString();
+        RenderStats.GetStringEvent event = stats.beginGetString();
+        long start = System.nanoTime();
+        String s = currentString();
+        stats.endGetString(event, start, s.length());
+        return s;
+    }
+    
+    
+    /*
+     * Returns the table as a String, and keeps it for the next invocations. See getString().
+     */
+    private String currentString(){
+        completeText();
+        
+        char[] bottomBorder = bottomBorder();
+        if (snapshot != null && snapshotLength == textBuilder.length() 
+                                                    && snapshotBorder == bottomBorder)
+            return snapshot;
+        
+        snapshot = textBuilder.snapshot(bottomBorder).toString();
+        snapshotLength = textBuilder.length();
+        snapshotBorder = bottomBorder;
+        return snapshot;
     }
     
     
-    /* *********************************************************************
-        C H A N G E   B O R D E R   &   P A D D I N G   C H A R A C T E R S
-       ********************************************************************* */
     /**
-     * Sets the character to be used for padding.
-     * {@code TabularPrint} uses this character every time it needs to leave an empty space.
-     * The default character for padding is, of course, the space character, but this can
-     * be changed by calling this method.
+     * Returns this {@code TabularPrint} object as a read-only {@code CharSequence}, 
+     * without copying the text. The returned sequence is not affected by rows printed 
+     * after the invocation of this method, so it can be handed over to other threads, 
+     * for example to be displayed, while rows are still being printed.
      * 
-     * @param s the character to be used in place of the space character 
+     * @return the table as a {@code CharSequence}
+     * @throws IllegalStateException if this {@code TabularPrint} writes to an output sink,
+     * or if the table is longer than {@code Integer.MAX_VALUE} characters. Use
+     * {@link writeTo(Writer)} instead.
+     * @see getString()
      */
-    public void setPaddingChar(String s){ paddingChar = s; }
+    public CharSequence snapshot(){
+        completeText();
+        isShared = true;
+        return textBuilder.snapshot(bottomBorder());
+    }
     
     
     /**
-     * Sets the character to be used for the inner point of a horizontal line.
-     * The default value is the dash character '─'.
+     * Returns the text printed since the previous invocation of this method, 
+     * or all the text printed so far, for the first invocation. Periodic polling
+     * of a growing table costs only as much as the new rows, no matter how large 
+     * the table is. 
+     * The bottom border is not included, since more rows may follow. So, the whole table is 
+     * the concatenation of all returned texts, followed by the bottom border, if any.
+     * <p>
+     * Just like {@link getString()}, the rows held by auto-sized columns are printed 
+     * and the widths of the columns are fixed, so they are not changed by later rows.
      * 
-     * @param horizontal the character for printing the inner point of a horizontal line.
+     * @return the text printed since the previous invocation
+     * @throws IllegalStateException if this {@code TabularPrint} writes to an output sink
+     * @see getString()
      */
-    public void setHorizontalChar(char horizontal) {
-        this.horizontal = Character.toString(horizontal);
+    public String getNewText(){
+        completeText();
+        
+        String newText = textBuilder.substring(newTextStart, textBuilder.length());
+        newTextStart = textBuilder.length();
+        return newText;
     }
-
+    
     
     /**
-     * Sets the character to be used for the inner intersection point
-     * between a horizontal and a vertical line.
-     * The default value is the cross character '┼'
+     * Returns this {@code TabularPrint} object encoded as UTF-8, just like 
+     * {@code getString().getBytes(StandardCharsets.UTF_8)} but without the intermediate 
+     * {@code String}. The text is encoded straight into an array of the exact size.
      * 
-     * @param cross the character for printing intersection point 
-     * between horizontal and vertical line
+     * @return the table encoded as UTF-8
+     * @throws IllegalStateException if this {@code TabularPrint} writes to an output sink
+     * @see getString()
      */
-    public void setCrossChar(char cross) {
-        this.cross = Character.toString(cross);
+    public byte[] getBytes(){
+        completeText();
+        
+        char[] bottomBorder = bottomBorder();
+        long length = Utf8.encodedLength(textBuilder, bottomBorder);
+        if (length > Integer.MAX_VALUE - 8)
+            throw new OutOfMemoryError("the table is too large for an array: " + length);
+        
+        byte[] bytes = new byte[(int) length];
+        Utf8.Encoder encoder = new Utf8.Encoder(DEFAULT_ENCODER_STAGE){
+            private int pos = 0;
+            
+            @Override
+            void drain(byte[] stage, int stageLength){
+                System.arraycopy(stage, 0, bytes, pos, stageLength);
+                pos += stageLength;
+            }
+        };
+        try {
+            encodeText(encoder, bottomBorder);
+        } catch (IOException e) {
+            // the array is large enough, so nothing can fail
+            throw new UncheckedIOException(e);
+        }
+        return bytes;
     }
-
+    
     
     /**
-     * Sets the character to be used for the start point of a horizontal line.
-     * The default value is '├'
+     * Writes this {@code TabularPrint} object to the given stream, encoded as UTF-8.
+     * The text is encoded in small chunks, so neither a {@code String} nor a {@code byte[]} 
+     * of the whole table is created. The stream is neither flushed nor closed.
      * 
-     * @param horizontalStart the character for printing 
-     * the start point of a horizontal line
+     * @param stream the stream to write to
+     * @throws IOException if the stream fails
+     * @throws IllegalStateException if this {@code TabularPrint} writes to an output sink
+     * @see getString()
      */
-    public void setHorizontalStartChar(char horizontalStart) {
-        this.horizontalStart = Character.toString(horizontalStart);
+    public void writeTo(OutputStream stream) throws IOException{
+        completeText();
+        
+        Utf8.Encoder encoder = new Utf8.Encoder(DEFAULT_ENCODER_STAGE){
+            @Override
+            void drain(byte[] stage, int stageLength) throws IOException{
+                stream.write(stage, 0, stageLength);
+            }
+        };
+        encodeText(encoder, bottomBorder());
     }
-
+    
     
     /**
-     * Sets the character to be used for the end point of a horizontal line.
-     * The default value is '┤'
+     * Writes this {@code TabularPrint} object to the given channel, encoded as UTF-8.
+     * The text is encoded in small chunks, so neither a {@code String} nor a {@code byte[]} 
+     * of the whole table is created. The channel is not closed.
      * 
-     * @param horizontalEnd the character for printing the end point of a horizontal line
+     * @param channel the channel to write to
+     * @throws IOException if the channel fails
+     * @throws IllegalStateException if this {@code TabularPrint} writes to an output sink
+     * @see getString()
      */
-    public void setHorizontalEndChar(char horizontalEnd) {
-        this.horizontalEnd = Character.toString(horizontalEnd);
+    public void writeTo(WritableByteChannel channel) throws IOException{
+        completeText();
+        
+        Utf8.Encoder encoder = new Utf8.Encoder(DEFAULT_ENCODER_STAGE){
+            @Override
+            void drain(byte[] stage, int stageLength) throws IOException{
+                ByteBuffer buffer = ByteBuffer.wrap(stage, 0, stageLength);
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+        };
+        encodeText(encoder, bottomBorder());
     }
-
+    
     
     /**
-     * Sets the character to be used for the bottom intersection point 
-     * between a horizontal and a vertical line.
-     * The default value is '┴'
+     * Writes this {@code TabularPrint} object to the given writer. The text is written 
+     * chunk by chunk, so no {@code String} of the whole table is created. 
+     * The writer is neither flushed nor closed.
      * 
-     * @param horizontalUp the character for printing the bottom intersection point 
-     * between a horizontal and a vertical line.
+     * @param writer the writer to write to
+     * @throws IOException if the writer fails
+     * @throws IllegalStateException if this {@code TabularPrint} writes to an output sink
+     * @see getString()
      */
-    public void setHorizontalUpChar(char horizontalUp) {
-        this.horizontalUp = Character.toString(horizontalUp);
+    public void writeTo(Writer writer) throws IOException{
+        completeText();
+        
+        textBuilder.writeTo(writer, 0, textBuilder.length());
+        char[] bottomBorder = bottomBorder();
+        if (bottomBorder != null) writer.write(bottomBorder);
     }
-
     
+    
+    /* *********************************************************************
+                          S T R E A M I N G   M O D E
+       ********************************************************************* */
     /**
-     * Sets the character to be used for the top intersection point 
-     * between a horizontal and a vertical line.
-     * The default value is '┬'
+     * Writes all buffered text to the output sink and flushes the sink,
+     * if it is {@code Flushable}.
+     * It has no effect if this {@code TabularPrint} does not write to an output sink.
      * 
-     * @param horizontalDown the character for printing the top intersection point 
-     * between a horizontal and a vertical line.
+     * @throws UncheckedIOException if the sink fails
      */
-    public void setHorizontalDownChar(char horizontalDown) {
-        this.horizontalDown = Character.toString(horizontalDown);
+    public void flush(){
+        if (out == null) return;
+        flushBuffer();
+        if (out instanceof Flushable){
+            try {
+                ((Flushable) out).flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
-
+    
     
     /**
-     * Sets the character to be used for the inner point of a vertical line.
-     * The default value is the pipe character '│'.
+     * Completes the table written to the output sink. That is, it prints the bottom border,
+     * if any, and flushes everything to the sink. The sink itself is not closed.
+     * No rows can be printed after the invocation of this method.
+     * Calling this method more than once has no effect.
      * 
-     * @param vertical the character for printing the inner point of a vertical line.
+     * @throws IllegalStateException if this {@code TabularPrint} does not write 
+     * to an output sink. Use {@link getString()} instead.
+     * @throws UncheckedIOException if the sink fails
      */
-    public void setVerticalChar(char vertical) {
-        this.vertical = Character.toString(vertical);
+    public void finish(){
+        if (out == null)
+            throw new IllegalStateException("the table is not written to an output sink, "
+                    + "use getString() instead");
+        if (isFinished) return;
+        
+        fixWidths();
+        isFinished = true;
+        printBottomBorder();
+        flush();
     }
-
     
+    
+    /* *********************************************************************
+                            R E U S I N G   T A B L E S
+       ********************************************************************* */
     /**
-     * Sets the character to be used for the top left corner.
-     * The default value is '┌'
+     * Discards the rows printed so far, so that this table can print a new table with 
+     * the same columns, title and decoration. The title and the headers are printed again,
+     * before the next row. The text keeps the memory it has grown to, and so do the buffers 
+     * of the rows, so a table reused for tables of similar size allocates nothing more.
+     * <p>
+     * The widths of the auto-sized columns are kept as they are, so the rows of the next 
+     * table are printed right away, without being held. Use {@link reset()} to size 
+     * the columns again. Any text returned by {@link snapshot()} is left intact.
+     * <p>
+     * The counters of {@link enableStats()} go on counting.
      * 
-     * @param leftCornerUp the character for printing the top left corner.
+     * @throws IllegalStateException if this {@code TabularPrint} writes to an output sink,
+     * and it has printed rows without being finished
      */
-    public void setLeftCornerTopChar(char leftCornerUp) {
-        this.upLeftCorner = Character.toString(leftCornerUp);
+    public void clearRows(){
+        if (out != null && !isFinished && (!isFirstTime || heldRows != null))
+            throw new IllegalStateException("the table is written to an output sink, "
+                    + "finish() it first");
+        
+        // the border sides are added again with the first row, in case the border changes
+        if (borderSide != null){
+            allColumns.remove(allColumns.size() - 1);
+            allColumns.remove(0);
+            borderSide = null;
+            invalidateRules();
+        }
+        
+        // a snapshot still reads the chunks of the text, so new ones are needed
+        if (isShared) textBuilder.release();
+        else textBuilder.setLength(0);
+        isShared = false;
+        if (expectedRows > 0) setExpectedRows(expectedRows);
+        
+        isFirstTime = true;
+        hasRows = false;
+        isFinished = false;
+        heldRows = null;
+        snapshot = null;
+        snapshotLength = 0;
+        snapshotBorder = null;
+        newTextStart = 0;
+        frozenHead = null;
     }
-
+    
     
     /**
-     * Sets the character to be used for the bottom left corner.
-     * The default value is '└'
+     * Works just like {@link clearRows()}, but the auto-sized columns are sized again, 
+     * from the rows of the next table.
      * 
-     * @param leftCornerDown the character for printing the bottom left corner.
+     * @throws IllegalStateException if this {@code TabularPrint} writes to an output sink,
+     * and it has printed rows without being finished
      */
-    public void setLeftCornerBottomChar(char leftCornerDown) {
-        this.downLeftCorner = Character.toString(leftCornerDown);
+    public void reset(){
+        clearRows();
+        isSized = false;
     }
-
+    
+    
+    /* *********************************************************************
+                          C O M P I L E D   T A B L E S
+       ********************************************************************* */
+    /**
+     * Compiles the columns, the title and the decoration of this table into a {@link TableSpec},
+     * that is an immutable description of the table, with its headers already printed.
+     * A single spec can be shared by any number of threads, each one printing its own tables 
+     * with a {@link TableRenderer} of its own. For example
+     * <pre>
+     *     TableSpec spec = tp.compile();
+     *     ThreadLocal&lt;TableRenderer&gt; renderers = ThreadLocal.withInitial(spec::newRenderer);
+     *     ...
+     *     TableRenderer renderer = renderers.get().clear();
+     *     renderer.printRows(rows);
+     *     String report = renderer.getString();
+     * </pre>
+     * The spec keeps a copy of the layout, so this table is not affected: it can go on 
+     * printing rows or be changed further, without changing the spec. Auto-sized columns 
+     * fit their headers, unless their widths are already fixed by the rows of this table.
+     * 
+     * @return the compiled table
+     */
+    public TableSpec compile(){
+        TabularPrint copy = new TabularPrint();
+        copy.horizontal = horizontal;
+        copy.cross = cross;
+        copy.horizontalStart = horizontalStart;
+        copy.horizontalEnd = horizontalEnd;
+        copy.horizontalUp = horizontalUp;
+        copy.horizontalDown = horizontalDown;
+        copy.vertical = vertical;
+        copy.upLeftCorner = upLeftCorner;
+        copy.downLeftCorner = downLeftCorner;
+        copy.upRightCorner = upRightCorner;
+        copy.downRightCorner = downRightCorner;
+        copy.paddingChar = paddingChar;
+        copy.title = title;
+        copy.showBorder = showBorder;
+        copy.showHeaders = showHeaders;
+        copy.showRowSeparators = showRowSeparators;
+        copy.showTitleSeparator = showTitleSeparator;
+        copy.showHeadersSeparator = showHeadersSeparator;
+        copy.isSized = isSized;
+        for (Column col : allColumns){
+            // the copy adds border sides of its own
+            if (col == borderSide) continue;
+            Column c = col.copyTo(copy);
+            copy.allColumns.add(c);
+            if (!c.isSeparator) copy.dataColumns.add(c);
+        }
+        return new TableSpec(copy);
+    }
+    
+    
+    /* *********************************************************************
+                                 S T R E A M S
+       ********************************************************************* */
+    /**
+     * Returns a {@code Collector} that prints every element of a stream as a row,
+     * just like {@link printRow(Object[])}, and returns the whole table as a {@code String}.
+     * For example
+     * <pre>
+     *     String table = orders.stream()
+     *             .map(o -> new Object[]{ o.id(), o.customer(), o.total() })
+     *             .collect(tp.collector());
+     * </pre>
+     * The columns and the decoration of this table are used, but the rows are rendered 
+     * into buffers of their own. So, the collector can be used more than once, and also
+     * on parallel streams. Partial results are joined in order, so the rows of an ordered 
+     * stream are printed in the order of the stream, and the rows of an unordered stream 
+     * in the order in which they are collected.
+     * <p>
+     * The layout of this table is frozen, so it must not print any rows of its own, 
+     * either before or after the invocation of this method.
+     * 
+     * @return a collector that prints the rows of a stream into a table
+     * @throws IllegalStateException if this table has already printed rows, or if it 
+     * writes to an output sink
+     */
+    public Collector<Object[], ?, String> collector(){
+        String head = freezeLayout();
+        return Collector.of(Part::new, Part::add, Part::join, part -> part.toString(head));
+    }
+    
+    
+    /**
+     * Returns the lines of the table with the given rows, rendered lazily.
+     * Every element of the given stream is a row, printed just like 
+     * {@link printRows(Iterable)} prints it. A row is rendered only when its first line
+     * is needed, so a pipeline that stops early, for example with {@code limit(long)} or 
+     * {@code takeWhile(Predicate)}, does not render the rest of the table.
+     * The lines do not include the line break. Closing the returned stream closes the
+     * stream of rows.
+     * <p>
+     * The layout of this table is frozen, so it must not print any rows of its own, 
+     * either before or after the invocation of this method.
+     * 
+     * @param rows the rows of the table
+     * @return the lines of the table
+     * @throws IllegalStateException if this table has already printed rows, or if it 
+     * writes to an output sink
+     */
+    public Stream<String> lines(Stream<?> rows){
+        String head = freezeLayout();
+        return StreamSupport.stream(new LineSpliterator(head, rows.iterator()), false)
+                .onClose(rows::close);
+    }
+    
+    
+    /**
+     * Returns a {@code Flow.Processor} that takes rows from an upstream publisher and 
+     * publishes the rendered table downstream, piece by piece. The first item is the text 
+     * above the first row, that is the border, the title and the headers. Then, every row
+     * is published as an item of its own, with the row separator before it, if any. 
+     * The last item is the bottom border, if any, once the upstream publisher completes.
+     * <p>
+     * Rows are requested from upstream only as far as items are requested from downstream,
+     * so a slow subscriber throttles the rendering, instead of rendered rows piling up 
+     * in memory. Rows are rendered on the thread that delivers them. The processor
+     * accepts a single subscriber.
+     * <p>
+     * The layout of this table is frozen, so it must not print any rows of its own, 
+     * either before or after the invocation of this method.
+     * 
+     * @return a processor that renders rows into a table
+     * @throws IllegalStateException if this table has already printed rows, or if it 
+     * writes to an output sink
+     */
+    public Flow.Processor<Object[], CharSequence> asProcessor(){
+        return new RowProcessor(freezeLayout());
+    }
+    
+    
+    /* *********************************************************************
+                             R E N D E R   S T A T S
+       ********************************************************************* */
+    /**
+     * Enables the counters of this table and returns them. From that point on, 
+     * every rendered row is counted and timed, and JFR events are emitted for rows and 
+     * for {@link getString()}. See {@link RenderStats}.
+     * <p>
+     * The counters are meant to be enabled before any rows are printed. Rows rendered 
+     * by other threads at the time this method is called may not be counted.
+     * Calling this method more than once returns the same counters.
+     * 
+     * @return the counters of this table
+     */
+    public RenderStats enableStats(){
+        if (stats == null) stats = new RenderStats(textBuilder);
+        return stats;
+    }
+    
+    
+    /**
+     * Returns the counters of this table, enabled by {@link enableStats()}.
+     * 
+     * @return the counters of this table, or {@code null} if they are not enabled
+     */
+    public RenderStats getStats(){
+        return stats;
+    }
+    
+    
+    /* *********************************************************************
+        C H A N G E   B O R D E R   &   P A D D I N G   C H A R A C T E R S
+       ********************************************************************* */
+    /**
+     * Sets the character to be used for padding.
+     * {@code TabularPrint} uses this character every time it needs to leave an empty space.
+     * The default character for padding is, of course, the space character, but this can
+     * be changed by calling this method.
+     * 
+     * @param s the character to be used in place of the space character 
+     */
+    public void setPaddingChar(String s){
+        paddingChar = s;
+        // the padding runs have to be created again, with the new character
+        for (Column col : allColumns)
+            col.paddingRun = null;
+    }
+    
+    
+    /**
+     * Sets the character to be used for the inner point of a horizontal line.
+     * The default value is the dash character '─'.
+     * 
+     * @param horizontal the character for printing the inner point of a horizontal line.
+     */
+    public void setHorizontalChar(char horizontal) {
+        this.horizontal = Character.toString(horizontal);
+        invalidateRules();
+    }
+
+    
+    /**
+     * Sets the character to be used for the inner intersection point
+     * between a horizontal and a vertical line.
+     * The default value is the cross character '┼'
+     * 
+     * @param cross the character for printing intersection point 
+     * between horizontal and vertical line
+     */
+    public void setCrossChar(char cross) {
+        this.cross = Character.toString(cross);
+        invalidateRules();
+    }
+
+    
+    /**
+     * Sets the character to be used for the start point of a horizontal line.
+     * The default value is '├'
+     * 
+     * @param horizontalStart the character for printing 
+     * the start point of a horizontal line
+     */
+    public void setHorizontalStartChar(char horizontalStart) {
+        this.horizontalStart = Character.toString(horizontalStart);
+        invalidateRules();
+    }
+
+    
+    /**
+     * Sets the character to be used for the end point of a horizontal line.
+     * The default value is '┤'
+     * 
+     * @param horizontalEnd the character for printing the end point of a horizontal line
+     */
+    public void setHorizontalEndChar(char horizontalEnd) {
+        this.horizontalEnd = Character.toString(horizontalEnd);
+        invalidateRules();
+    }
+
+    
+    /**
+     * Sets the character to be used for the bottom intersection point 
+     * between a horizontal and a vertical line.
+     * The default value is '┴'
+     * 
+     * @param horizontalUp the character for printing the bottom intersection point 
+     * between a horizontal and a vertical line.
+     */
+    public void setHorizontalUpChar(char horizontalUp) {
+        this.horizontalUp = Character.toString(horizontalUp);
+        invalidateRules();
+    }
+
+    
+    /**
+     * Sets the character to be used for the top intersection point 
+     * between a horizontal and a vertical line.
+     * The default value is '┬'
+     * 
+     * @param horizontalDown the character for printing the top intersection point 
+     * between a horizontal and a vertical line.
+     */
+    public void setHorizontalDownChar(char horizontalDown) {
+        this.horizontalDown = Character.toString(horizontalDown);
+        invalidateRules();
+    }
+
+    
+    /**
+     * Sets the character to be used for the inner point of a vertical line.
+     * The default value is the pipe character '│'.
+     * 
+     * @param vertical the character for printing the inner point of a vertical line.
+     */
+    public void setVerticalChar(char vertical) {
+        this.vertical = Character.toString(vertical);
+        invalidateRules();
+    }
+
+    
+    /**
+     * Sets the character to be used for the top left corner.
+     * The default value is '┌'
+     * 
+     * @param leftCornerUp the character for printing the top left corner.
+     */
+    public void setLeftCornerTopChar(char leftCornerUp) {
+        this.upLeftCorner = Character.toString(leftCornerUp);
+        invalidateRules();
+    }
+
+    
+    /**
+     * Sets the character to be used for the bottom left corner.
+     * The default value is '└'
+     * 
+     * @param leftCornerDown the character for printing the bottom left corner.
+     */
+    public void setLeftCornerBottomChar(char leftCornerDown) {
+        this.downLeftCorner = Character.toString(leftCornerDown);
+        invalidateRules();
+    }
+
     
     /**
      * Sets the character to be used for the top right corner.
@@ -591,6 +1308,7 @@ public class TabularPrint {
      */
     public void setRightCornerTopChar(char rightCornerUp) {
         this.upRightCorner = Character.toString(rightCornerUp);
+        invalidateRules();
     }
 
     
@@ -602,6 +1320,58 @@ public class TabularPrint {
      */
     public void setRightCornerBottomChar(char rightCornerDown) {
         this.downRightCorner = Character.toString(rightCornerDown);
+        invalidateRules();
+    }
+    
+    
+    /* *********************************************************************
+                     H O O K S   F O R   F R O Z E N   L A Y O U T
+       ********************************************************************* */
+    /*
+     * Freezes the layout of this table, so that rows can be rendered by many renderers, 
+     * even by many threads, and returns the text above the first row, that is the border,
+     * the title and the headers. After the first invocation, the same text is returned.
+     */
+    String freezeLayout(){
+        if (frozenHead != null) return frozenHead;
+        if (out != null)
+            throw new IllegalStateException("the table is written to an output sink");
+        if (!isFirstTime || heldRows != null)
+            throw new IllegalStateException("the table has already printed rows");
+        
+        // there are no rows, so auto-sized columns fit their headers
+        fixWidths();
+        isFirstTime = false;
+        if (showBorder) addBorderSides();
+        printHeadersAndTitle();
+        prepareColumns();
+        rule(BOTTOM_RULE);
+        frozenHead = textBuilder.toString();
+        return frozenHead;
+    }
+    
+    
+    /*
+     * Creates a new renderer that renders rows into the given buffer.
+     */
+    Renderer newRenderer(TextBuffer text){
+        return new Renderer(text);
+    }
+    
+    
+    /*
+     * Returns the line between rows, or null if there is no such line.
+     */
+    char[] rowSeparator(){
+        return showRowSeparators ? rule(ROW_RULE) : null;
+    }
+    
+    
+    /*
+     * Returns the bottom border, or null if there is no border.
+     */
+    char[] bottomBorder(){
+        return showBorder ? rule(BOTTOM_RULE) : null;
     }
     
     
@@ -614,26 +1384,32 @@ public class TabularPrint {
         for (Column col : allColumns)
             rowWidth += col.width;
         
-        String rest = title; // initialize rest
-        
         Column col1 = allColumns.get(0);                    // the first column
         Column col2 = allColumns.get(allColumns.size() - 1);     // the last column
         if (col1.isSeparator) rowWidth -= col1.width;
         if (col2.isSeparator) rowWidth -= col2.width;
         
-        // a temp column only for the title
-        Column tempCol = new Column();
+        // a column only for the title, kept for tables that are printed again. See clearRows()
+        if (titleColumn == null){
+            titleColumn = new Column();
+            titleLayout = new CellLayout();
+        }
+        Column tempCol = titleColumn;
         // setup the temp column and print the title 
-        tempCol.width(rowWidth);
+        if (tempCol.width != rowWidth) tempCol.width(rowWidth);
         tempCol.horizontalCenter();
         
+        // split the title into lines
+        CellLayout layout = titleLayout;
+        layoutCell(layout, tempCol, title);
+        
         // start printng
-        while (!rest.isEmpty()){
+        for (int line = 0; line < layout.numOfLines; line++){
             // if the leftmost column separator exists, then print it
             if (col1.isSeparator) textBuilder.append(col1.header);
             
             // print the title
-            rest = printCell(tempCol, rest, true);
+            renderer.center(tempCol, layout, line);
             
             // if the rightmost column separator exists, then print it
             if (col2.isSeparator) textBuilder.append(col2.header);
@@ -643,226 +1419,1293 @@ public class TabularPrint {
         }
         
         // print a row separator below the title
-        if (showTitleSeparator){
-            for (int i = 0; i < allColumns.size(); i++){
-                Column col = allColumns.get(i);
+        if (showTitleSeparator) printRule(TITLE_RULE);
+    }
+    
+    
+    private void printHeaders(){
+        // collect the headers of the data columns into an array
+        String[] forPrint = new String[dataColumns.size()];
+        for (int i = 0; i < forPrint.length; i++)
+            forPrint[i] = dataColumns.get(i).header;
+        
+        // headers are always aligned to the top, and they are not counted as rows
+        renderer.printCells(forPrint, false, null);
+        
+        if (showHeadersSeparator) printRowSeparator();
+    }
+    
+    
+    private void printHeadersAndTitle(){
+        if (showBorder && title != null)
+            printRule(TITLE_TOP_RULE);
+        else if (showBorder) // regardless of showHeaders
+            printRule(TOP_RULE);
 
-                if (col.isSeparator && col.header.equals(vertical) && i == 0)
-                    textBuilder.append(horizontalStart);
-                else if (col.isSeparator && col.header.equals(vertical) &&
-                                                                    i == allColumns.size() - 1)
-                    textBuilder.append(horizontalEnd);
-                else if (col.isSeparator && col.header.equals(vertical))
-                    textBuilder.append(horizontalDown);
-                else
-                    textBuilder.append(horizontal.repeat(col.width));
+        if (title != null) printTitle();
+        if (showHeaders) printHeaders();
+    }
+    
+    
+    private void addBorderSides(){
+        Column c = new Column();
+        c.width(DisplayWidth.of(vertical, 0, vertical.length()));
+        c.header(vertical);
+        c.horAlign = HORIZONTAL_CENTER;
+        c.isSeparator = true;
+        allColumns.add(0, c);
+        allColumns.add(c);
+        borderSide = c;
+        invalidateRules();
+    }
+    
+    
+    /*
+     * Converts a row of printRows(Iterable) to an array of cells, to be staged.
+     * Every way of printing many rows at once converts its rows with this method.
+     */
+    static Object[] toCells(Object row){
+        if (row instanceof Object[])
+            return (Object[]) row;
+        if (row instanceof List)
+            return ((List<?>) row).toArray();
+        return new Object[]{ row };
+    }
+    
+    
+    /*
+     * Creates everything that is otherwise created on first use, while rendering rows.
+     * After that, the columns and the horizontal lines are only read by the renderers.
+     */
+    private void prepareColumns(){
+        for (Column col : allColumns){
+            col.paddingRun();
+            col.blank();
+        }
+        rule(ROW_RULE);
+        compileColumns();
+    }
+    
+    
+    /*
+     * Flattens the columns into the data columns and the separators between them,
+     * so that the renderers print a line without walking the list of all columns.
+     */
+    private void compileColumns(){
+        Column[] columns = new Column[dataColumns.size()];
+        String[] between = new String[columns.length + 1];
+        StringBuilder gap = new StringBuilder();
+        int i = 0;
+        for (Column col : allColumns){
+            if (col.isSeparator){
+                gap.append(col.header);
+                continue;
             }
-            textBuilder.append("\n");
+            between[i] = gap.toString();
+            columns[i++] = col;
+            gap.setLength(0);
+        }
+        between[i] = gap.append('\n').toString();
+        gaps = between;
+        lineColumns = columns;
+    }
+    
+    
+    // the data columns as an array, compiled on first use
+    private Column[] columns(){
+        if (lineColumns == null) compileColumns();
+        return lineColumns;
+    }
+    
+    
+    /*
+     * Prints the cells prepared by prepareRow(), together with the headers and the title
+     * in case of the first row.
+     */
+    private void printPreparedRow(){
+        if (isSizing()){
+            holdRow(null);
+            return;
+        }
+        
+        renderer.printRow(startRow());
+        
+        // in streaming mode, do not let the buffer grow beyond the threshold
+        if (out != null && textBuilder.length() >= flushThreshold) flushBuffer();
+    }
+    
+    
+    /*
+     * Does whatever is needed before a new row. For the very first row, it prints 
+     * the headers and the title.
+     * Returns true if a row separator has to be printed before the new row.
+     */
+    private boolean startRow(){
+        if (isFinished)
+            throw new IllegalStateException("the table is already finished");
+        
+        // for the very first time print the headers and the title
+        if (isFirstTime){
+            isFirstTime = false;
+            if (showBorder) addBorderSides();
+            printHeadersAndTitle();
+        }
+        
+        // the row separator goes between rows, so it is printed before every row except the first
+        boolean withSeparator = showRowSeparators && hasRows;
+        hasRows = true;
+        return withSeparator;
+    }
+    
+    
+    /*
+     * Returns true if rows have to be held back, because there are auto-sized columns
+     * whose width is not fixed yet.
+     */
+    private boolean isSizing(){
+        if (heldRows != null) return true;
+        if (isSized || !isFirstTime) return false;
+        
+        for (Column col : dataColumns)
+            if (col.isAutoWidth) return true;
+        isSized = true;
+        return false;
+    }
+    
+    
+    /*
+     * Holds back the row prepared by prepareRow() or, if the given padding is not null, 
+     * a blank row with this padding. The text of the cells is kept as it was formatted, 
+     * so that it is neither formatted again nor measured twice. Missing cells are kept as null.
+     */
+    private void holdRow(String padd){
+        if (heldRows == null){
+            int capacity = autoWidthSample > 0 ? autoWidthSample : expectedRows;
+            heldRows = new ArrayList<>(Math.max(capacity, 10));
+        }
+        
+        if (padd != null)
+            heldRows.add(padd);
+        else{
+            CharSequence[] cells = renderer.rowCells;
+            String[] row = new String[cells.length];
+            for (int i = 0; i < cells.length; i++)
+                row[i] = cells[i] == dataColumns.get(i).blank ? null : cells[i].toString();
+            heldRows.add(row);
+        }
+        
+        if (heldRows.size() == autoWidthSample) fixWidths();
+    }
+    
+    
+    /*
+     * Fixes the width of every auto-sized column to its longest line, among the header 
+     * and the held rows, within the limits of the column. Then, the held rows are printed.
+     */
+    private void fixWidths(){
+        if (isSized) return;
+        isSized = true;
+        
+        List<Object> rows = heldRows == null ? List.of() : heldRows;
+        heldRows = null;
+        
+        for (int i = 0; i < dataColumns.size(); i++){
+            Column col = dataColumns.get(i);
+            if (!col.isAutoWidth) continue;
+            
+            int width = longestLine(col.header, col);
+            for (Object row : rows){
+                if (width >= col.maxWidth) break;
+                if (row instanceof String[])
+                    width = Math.max(width, longestLine(((String[]) row)[i], col));
+            }
+            col.resize(Math.min(col.maxWidth, Math.max(col.minWidth, width)));
+        }
+        
+        for (Object row : rows){
+            if (row instanceof String){
+                printBlankRow((String) row);
+                continue;
+            }
+            String[] cells = (String[]) row;
+            CharSequence[] rowCells = renderer.prepareRow();
+            for (int i = 0; i < cells.length; i++)
+                rowCells[i] = cells[i] == null ? dataColumns.get(i).blank() : cells[i];
+            printPreparedRow();
+        }
+    }
+    
+    
+    /*
+     * Returns the display width of the longest line of the given text, in the given column.
+     * The scan stops once the longest line reaches the maximum width of the column, 
+     * or once the maximum number of lines of the column is read, since every line takes 
+     * at least a line of the cell, and nothing beyond is ever shown. So, a huge cell 
+     * is read no further than it matters. If there is more text, the last line is 
+     * followed by the ellipsis, which takes room too.
+     */
+    private static int longestLine(String s, Column col){
+        if (s == null) return 0;
+        int len = s.length();
+        int longest = 0;
+        int lineWidth = 0;
+        int lines = 0;
+        for (int i = 0; i < len; i++){
+            char c = s.charAt(i);
+            if (c == '\n'){
+                if (++lines == col.maxLines){
+                    if (i + 1 < len) longest = Math.max(longest, lineWidth + col.ellipsisWidth);
+                    break;
+                }
+                lineWidth = 0;
+                continue;
+            }
+            if (c < 0x80) lineWidth++;
+            else{
+                int codePoint = DisplayWidth.codePointAt(s, i, len);
+                if (codePoint > 0xFFFF) i++;
+                lineWidth += DisplayWidth.of(codePoint);
+            }
+            if (lineWidth > longest){
+                longest = lineWidth;
+                if (longest >= col.maxWidth) break;
+            }
+        }
+        return longest;
+    }
+    
+    
+    /*
+     * Splits the given text into lines that fit the column width. 
+     * A line ends at a line break or when it reaches the column width.
+     * An empty text has no lines.
+     * The text is scanned once, with a cursor. A line break is searched for only within 
+     * the next 'width + 1' characters, so the cost is linear to the text length, 
+     * no matter how long the text is.
+     * <p>
+     * The width of a line is its display width. While a line break is searched for, 
+     * the characters are also ORed together, so a line of ASCII characters, which take 
+     * one column each, is told apart without any extra branch and it is split by its length.
+     * Any other line is split by the display width of its characters. See wideLine().
+     * <p>
+     * If the column has a maximum number of lines, the scan stops once the lines are 
+     * laid out, and the rest of the text is never read. See truncate().
+     */
+    private void layoutCell(CellLayout layout, Column col, CharSequence s){
+        layout.text = s;
+        layout.numOfLines = 0;
+        layout.ellipsis = null;
+        
+        int len = s.length();
+        int cursor = 0;
+        while (cursor < len){
+            if (layout.numOfLines == col.maxLines){
+                truncate(layout, col);
+                return;
+            }
+            
+            // a line break at 'cursor + width' still ends a line that fits exactly
+            int limit = Math.min(len, cursor + col.width + 1);
+            int split = limit;
+            int bits = 0;
+            for (int i = cursor; i < limit; i++){
+                char c = s.charAt(i);
+                bits |= c;
+                if (c == '\n'){
+                    split = i;
+                    break;
+                }
+            }
+            if (bits >= 0x80){
+                cursor = wideLine(layout, col.width, s, cursor);
+                continue;
+            }
+            
+            // the line ends at the line break, which is consumed, or at the width
+            int end = split < limit ? split : Math.min(len, cursor + col.width);
+            layout.addLine(cursor, end, end - cursor);
+            cursor = split < limit ? split + 1 : end;
+        }
+    }
+    
+    
+    /*
+     * Adds the line of text that starts at the cursor, and returns the start of the next one.
+     * The line ends at a line break or before the first character that does not fit 
+     * the width. A surrogate pair is never split, and marks that combine with the last 
+     * character of the line, which take no columns, are kept in the line. 
+     * A character wider than the column takes a line of its own.
+     */
+    private static int wideLine(CellLayout layout, int width, CharSequence s, int cursor){
+        int len = s.length();
+        int lineWidth = 0;
+        int i = cursor;
+        while (i < len){
+            char c = s.charAt(i);
+            if (c == '\n'){
+                layout.addLine(cursor, i, lineWidth);
+                return i + 1;   // consume the line break
+            }
+            
+            int codePoint = DisplayWidth.codePointAt(s, i, len);
+            int w = DisplayWidth.of(codePoint);
+            if (lineWidth + w > width && i > cursor) break;
+            lineWidth += w;
+            i += Character.charCount(codePoint);
+        }
+        layout.addLine(cursor, i, lineWidth);
+        return i;
+    }
+    
+    
+    /*
+     * Makes room for the ellipsis of the column at the end of the last line of a cell,
+     * whose text goes on beyond its maximum number of lines. The last line is cut 
+     * before the first character that does not fit along with the ellipsis. 
+     * An ellipsis wider than the column is left out.
+     */
+    private static void truncate(CellLayout layout, Column col){
+        int available = col.width - col.ellipsisWidth;
+        if (available < 0) return;
+        
+        int line = layout.numOfLines - 1;
+        int start = layout.breaks[2 * line];
+        int end = layout.breaks[2 * line + 1];
+        int width = 0;
+        int i = start;
+        while (i < end){
+            int codePoint = DisplayWidth.codePointAt(layout.text, i, end);
+            int w = DisplayWidth.of(codePoint);
+            if (width + w > available) break;
+            width += w;
+            i += Character.charCount(codePoint);
+        }
+        layout.numOfLines = line;
+        layout.addLine(start, i, width + col.ellipsisWidth);
+        layout.ellipsis = col.ellipsis;
+    }
+    
+    
+    /*
+     * Makes sure that all rows of a table kept in memory are printed, before it is retrieved.
+     */
+    private void completeText(){
+        if (out != null)
+            throw new IllegalStateException("the table is written to an output sink, "
+                    + "use finish() instead");
+        
+        fixWidths();
+    }
+    
+    
+    /*
+     * Encodes the whole text, followed by the given bottom border, which may be null.
+     */
+    private void encodeText(Utf8.Encoder encoder, char[] bottomBorder) throws IOException{
+        textBuilder.forEachChunk(0, textBuilder.length(), encoder);
+        if (bottomBorder != null) encoder.encode(bottomBorder, 0, bottomBorder.length);
+        encoder.finish();
+    }
+    
+    
+    private void printBottomBorder(){
+        if (showBorder) printRule(BOTTOM_RULE); // regardless of showHeaders
+    }
+    
+    
+    private void flushBuffer(){
+        try {
+            textBuilder.writeTo(out, 0, textBuilder.length());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        textBuilder.setLength(0);
+    }
+    
+    
+    private void printRowSeparator(){
+        printRule(ROW_RULE);
+    }
+    
+    
+    /*
+     * Prints one of the horizontal lines. The lines are created on first use and
+     * then they are appended as they are, for as long as the glyphs and columns do not change.
+     */
+    private void printRule(int rule){
+        textBuilder.append(rule(rule));
+    }
+    
+    
+    private char[] rule(int rule){
+        if (rules[rule] == null) 
+            rules[rule] = createRule(rule);
+        return rules[rule];
+    }
+    
+    
+    private char[] createRule(int rule){
+        StringBuilder sb = new StringBuilder();
+        
+        if (rule == TITLE_TOP_RULE){
+            // the title spans over all columns, so there are no intersection points
+            int rowWidth = 0;
+            for (Column col : allColumns)
+                rowWidth += col.width;
+            
+            sb.append(upLeftCorner);
+            sb.append(horizontal.repeat(rowWidth-2));
+            sb.append(upRightCorner);
+            sb.append("\n");
+            return sb.toString().toCharArray();
+        }
+        
+        // the start, end and intersection points of the line
+        String start, end, inner;
+        switch (rule) {
+            case TOP_RULE -> {
+                start = upLeftCorner; end = upRightCorner; inner = horizontalDown;
+            }
+            case TITLE_RULE -> {
+                start = horizontalStart; end = horizontalEnd; inner = horizontalDown;
+            }
+            case BOTTOM_RULE -> {
+                start = downLeftCorner; end = downRightCorner; inner = horizontalUp;
+            }
+            default -> { // ROW_RULE
+                start = horizontalStart; end = horizontalEnd; inner = cross;
+            }
+        }
+        
+        for (int i = 0; i < allColumns.size(); i++){
+            Column col = allColumns.get(i);
+
+            if (col.isSeparator && col.header.equals(vertical) && i == 0)
+                sb.append(start);
+            else if (col.isSeparator && col.header.equals(vertical) &&
+                                                                i == allColumns.size() - 1)
+                sb.append(end);
+            else if (col.isSeparator && col.header.equals(vertical))
+                sb.append(inner);
+            else
+                sb.append(horizontal.repeat(col.width));
+        }
+        sb.append("\n");
+        return sb.toString().toCharArray();
+    }
+    
+    
+    private void invalidateRules(){
+        Arrays.fill(rules, null);
+        lineColumns = null;
+        gaps = null;
+    }
+    
+    
+    /* ***********************************
+         P R I V A T E   U T I L I T I E S
+       *********************************** */
+    /*
+     * Converts the given object to the text of a cell of the given column.
+     * Numbers are formatted into the given buffer, which is returned.
+     */
+    private CharSequence objectToString(Object obj, Column col, StringBuilder buffer){
+        if (obj == null) return "";
+        
+        if (obj instanceof Integer)
+            return buffer.append((int) obj);
+        
+        else if (obj instanceof Long)
+            return buffer.append((long) obj);
+        
+        else if (obj instanceof Float && col.decimals >= 0){
+            col.appendDecimal(buffer, (float) obj);
+            return buffer;
+        }
+        
+        else if (obj instanceof Float && col.decimals < 0)
+            return buffer.append((float) obj);
+        
+        else if (obj instanceof Double && col.decimals >= 0){
+            col.appendDecimal(buffer, (double) obj);
+            return buffer;
+        }
+        
+        else if (obj instanceof Double && col.decimals < 0)
+            return buffer.append((double) obj);
+        
+        else if (obj instanceof String)
+            return normalizeLineBreaks((String) obj, col);
+        
+        return obj.toString();
+    }
+    
+    
+    /*
+     * Replaces every kind of line break with '\n'.
+     * The text is returned as it is, if there are no carriage returns. In a column with 
+     * a maximum number of lines, only the lines that may be shown are searched,
+     * so a huge cell is not read beyond its visible lines.
+     */
+    private CharSequence normalizeLineBreaks(CharSequence s, Column col){
+        boolean hasCarriageReturn = false;
+        if (col.maxLines == Integer.MAX_VALUE){
+            for (int i = 0; i < s.length() && !hasCarriageReturn; i++)
+                hasCarriageReturn = s.charAt(i) == '\r';
+        }
+        else
+            hasCarriageReturn = hasVisibleCarriageReturn(s, col);
+        if (!hasCarriageReturn) return s;
+        
+        return s.toString()
+                .replace("\r\n", "\n")
+                .replace("\n\r", "\n")
+                .replace("\r", "\n");
+    }
+    
+    
+    /*
+     * Tells if there is a carriage return in the visible lines of a cell, or right after 
+     * them, where it would join the last line break. The lines are broken the same way 
+     * as by layoutCell(), by display width, so marks of zero width do not shorten the 
+     * search. The width of an auto-sized column is not known yet, so its maximum width, 
+     * which takes the most text, is taken.
+     */
+    private static boolean hasVisibleCarriageReturn(CharSequence s, Column col){
+        int width = col.isAutoWidth ? col.maxWidth : col.width;
+        int len = s.length();
+        int lines = 0;
+        int lineStart = 0;
+        int lineWidth = 0;
+        int i = 0;
+        while (i < len){
+            char c = s.charAt(i);
+            if (c == '\r') return true;
+            if (c == '\n'){
+                if (++lines == col.maxLines)
+                    return i + 1 < len && s.charAt(i + 1) == '\r';
+                lineStart = ++i;
+                lineWidth = 0;
+                continue;
+            }
+            
+            int codePoint = DisplayWidth.codePointAt(s, i, len);
+            int w = DisplayWidth.of(codePoint);
+            if (w > width - lineWidth && i > lineStart){
+                if (++lines == col.maxLines) return false;
+                lineStart = i;
+                lineWidth = 0;
+            }
+            lineWidth += w;
+            i += Character.charCount(codePoint);
+        }
+        return false;
+    }
+    
+    
+    /*
+     * The general, but slow, rounding. It is used only for the numbers that 
+     * do not fit the fast path of Column.appendDecimal(). The digits are formatted
+     * the same way as by the fast path, with the given decimal separator.
+     */
+    private static String round(double val, int numberOfDecimals, char decimalSeparator){
+        double shift = Math.pow(10.0, numberOfDecimals);
+        double shiftedVal = Math.floor((val * shift) + 0.5);
+        double rounded = shiftedVal / shift;
+        return String.format(Locale.ROOT, "%."+ Integer.toString(numberOfDecimals) + "f", rounded)
+                .replace('.', decimalSeparator);
+    }
+    
+    
+    /* *******************************
+         R E N D E R E R   C L A S S
+       ******************************* */
+    /*
+     * Renders rows into its own text buffer. It holds everything that changes from row to row,
+     * that is the cells of the row and their layout, while the columns, the glyphs and
+     * the horizontal lines are only read. Therefore, once the columns are prepared by 
+     * prepareColumns(), more than one renderer can render rows at the same time.
+     */
+    class Renderer{
+        private final TextBuffer text;
+        
+        // the data columns of the row being printed, read once per row
+        private Column[] columns = null;
+        
+        // the text of every data cell of the row being printed, and the buffers 
+        // for the cells which are formatted from numbers. They are reused for every row
+        private CharSequence[] rowCells = null;
+        private StringBuilder[] cellBuffers = null;
+        
+        // the layout of every data cell of the row being printed, reused for every row
+        private CellLayout[] layouts = null;
+        
+        private Renderer(TextBuffer text){
+            this.text = text;
+        }
+        
+        
+        /*
+         * Makes sure that the cells of the row to be printed, and their buffers, are in place.
+         */
+        private CharSequence[] prepareRow(){
+            columns = columns();
+            int n = columns.length;
+            if (rowCells == null || rowCells.length != n){
+                rowCells = new CharSequence[n];
+                cellBuffers = new StringBuilder[n];
+                for (int i = 0; i < n; i++)
+                    cellBuffers[i] = new StringBuilder();
+            }
+            return rowCells;
+        }
+        
+        
+        /*
+         * Converts the given cells to the text of the row. The elements of any arrays
+         * among the cells become cells of their own, so the cells are flattened on the fly,
+         * without any intermediate array. Missing cells are left blank and excess cells 
+         * are ignored.
+         */
+        private void stageCells(Object[] cells){
+            RenderStats stats = TabularPrint.this.stats;
+            long start = stats == null ? 0 : System.nanoTime();
+            
+            prepareRow();
+            int i = 0;
+            for (int c = 0; c < cells.length && i < rowCells.length; c++){
+                Object obj = cells[c];
+                if (obj != null && obj.getClass().isArray())
+                    i = stageArray(obj, i);
+                else{
+                    rowCells[i] = objectToString(obj, columns[i], buffer(i));
+                    i++;
+                }
+            }
+            for (; i < rowCells.length; i++)
+                rowCells[i] = columns[i].blank();
+            
+            if (stats != null) stats.formatted(start);
+        }
+        
+        
+        /*
+         * Converts the elements of the given array to the cells from index i onwards,
+         * and returns the index of the next cell. The elements of primitive arrays
+         * are formatted straight from the primitive values, the same way as their boxes.
+         */
+        private int stageArray(Object array, int i){
+            int n = rowCells.length;
+            if (array instanceof Object[]){
+                // the elements are not flattened any further
+                Object[] values = (Object[]) array;
+                for (int k = 0; k < values.length && i < n; k++, i++)
+                    rowCells[i] = objectToString(values[k], columns[i], buffer(i));
+            }
+            else if (array instanceof double[]){
+                double[] values = (double[]) array;
+                for (int k = 0; k < values.length && i < n; k++, i++){
+                    Column col = columns[i];
+                    if (col.decimals >= 0)
+                        col.appendDecimal(buffer(i), values[k]);
+                    else
+                        buffer(i).append(values[k]);
+                    rowCells[i] = cellBuffers[i];
+                }
+            }
+            else if (array instanceof float[]){
+                float[] values = (float[]) array;
+                for (int k = 0; k < values.length && i < n; k++, i++){
+                    Column col = columns[i];
+                    if (col.decimals >= 0)
+                        col.appendDecimal(buffer(i), values[k]);
+                    else
+                        buffer(i).append(values[k]);
+                    rowCells[i] = cellBuffers[i];
+                }
+            }
+            else if (array instanceof int[]){
+                int[] values = (int[]) array;
+                for (int k = 0; k < values.length && i < n; k++, i++)
+                    rowCells[i] = buffer(i).append(values[k]);
+            }
+            else if (array instanceof long[]){
+                long[] values = (long[]) array;
+                for (int k = 0; k < values.length && i < n; k++, i++)
+                    rowCells[i] = buffer(i).append(values[k]);
+            }
+            else if (array instanceof short[]){
+                short[] values = (short[]) array;
+                for (int k = 0; k < values.length && i < n; k++, i++)
+                    rowCells[i] = buffer(i).append(values[k]);
+            }
+            else if (array instanceof byte[]){
+                byte[] values = (byte[]) array;
+                for (int k = 0; k < values.length && i < n; k++, i++)
+                    rowCells[i] = buffer(i).append(values[k]);
+            }
+            else if (array instanceof char[]){
+                char[] values = (char[]) array;
+                for (int k = 0; k < values.length && i < n; k++, i++)
+                    rowCells[i] = buffer(i).append(values[k]);
+            }
+            else{
+                boolean[] values = (boolean[]) array;
+                for (int k = 0; k < values.length && i < n; k++, i++)
+                    rowCells[i] = buffer(i).append(values[k]);
+            }
+            return i;
+        }
+        
+        
+        // the buffer of cell i, emptied
+        private StringBuilder buffer(int i){
+            StringBuilder buffer = cellBuffers[i];
+            buffer.setLength(0);
+            return buffer;
+        }
+        
+        
+        /*
+         * Prints the given cells as a row, with a row separator before it if needed.
+         * Arrays among the cells are flattened.
+         */
+        void render(Object[] cells, boolean withSeparator){
+            stageCells(cells);
+            printRow(withSeparator);
+        }
+        
+        
+        /*
+         * Prints the cells prepared by prepareRow() or stageCells(), 
+         * with a row separator before them if needed.
+         */
+        private void printRow(boolean withSeparator){
+            RenderStats stats = TabularPrint.this.stats;
+            if (stats != null){
+                printCountedRow(stats, withSeparator);
+                return;
+            }
+            
+            if (withSeparator) text.append(rule(ROW_RULE));
+            printCells(rowCells, true, null);
+        }
+        
+        
+        // the same as printRow(), but the row is counted and timed
+        private void printCountedRow(RenderStats stats, boolean withSeparator){
+            RenderStats.RowEvent event = stats.beginRow();
+            long length = text.length();
+            if (withSeparator) text.append(rule(ROW_RULE));
+            int lines = printCells(rowCells, true, stats);
+            stats.endRow(event, lines, text.length() - length);
+        }
+        
+        
+        /*
+         * Prints a row of cells, one for each data column.
+         * First, every cell is split into lines in a single scan. Then, the number of lines
+         * of the row and the vertical offset of every cell are derived from the line counts.
+         * Finally, the lines are printed straight from the computed line breaks.
+         * Returns the number of lines printed. If the counters are given, the layout 
+         * and the printing of the lines are timed.
+         */
+        private int printCells(CharSequence[] cells, boolean alignVertically, RenderStats stats){
+            long start = stats == null ? 0 : System.nanoTime();
+            Column[] columns = columns();
+            String[] between = gaps;
+            
+            if (layouts == null || layouts.length < cells.length){
+                layouts = new CellLayout[cells.length];
+                for (int i = 0; i < cells.length; i++)
+                    layouts[i] = new CellLayout();
+            }
+        
+            // split the cells into lines and find the maximum number of lines among all cells
+            int maxLines = 1;
+            boolean allEmpty = true;
+            for (int i = 0; i < cells.length; i++){
+                CellLayout layout = layouts[i];
+                layoutCell(layout, columns[i], cells[i]);
+                if (layout.numOfLines > maxLines)
+                    maxLines = layout.numOfLines;
+                if (layout.numOfLines > 0)
+                    allEmpty = false;
+            }
+            if (stats != null) start = stats.laidOut(start, wrappedCells(cells.length));
+            // a row of empty cells is not printed at all
+            if (allEmpty) return 0;
+        
+            // find the number of blank lines above every cell, according to vertical alignment
+            for (int i = 0; i < cells.length; i++){
+                CellLayout layout = layouts[i];
+                // an empty cell counts as a single line
+                int num = maxLines - Math.max(layout.numOfLines, 1);
+                layout.offset = 0;
+                if (alignVertically){
+                    switch (columns[i].verAlign) {
+                        case VERTICAL_BOTTOM -> layout.offset = num;
+                        case VERTICAL_MIDDLE -> layout.offset = num / 2;
+                        default -> {
+                            // do nothing, that is the same as VERTICAL_TOP
+                        }
+                    }
+                }
+                // the last blank line above a cell absorbs a leading line break of the cell
+                layout.firstLine = 0;
+                if (layout.offset > 0 && layout.numOfLines > 0 && layout.text.charAt(0) == '\n')
+                    layout.firstLine = 1;
+            }
+        
+            // print the lines
+            for (int line = 0; line < maxLines; line++){
+                for (int i = 0; i < cells.length; i++){
+                    text.append(between[i]);
+                    Column col = columns[i];
+                    CellLayout layout = layouts[i];
+                    int cellLine = line - layout.offset + layout.firstLine;
+                    if (line < layout.offset){
+                        for (int k = 0; k < col.width; k++)
+                            text.append(' ');
+                    }
+                    else if (cellLine < layout.numOfLines){
+                        switch (col.horAlign) {
+                            case HORIZONTAL_RIGHT -> right(col, layout, cellLine);
+                            case HORIZONTAL_LEFT -> left(col, layout, cellLine);
+                            case HORIZONTAL_CENTER -> center(col, layout, cellLine);
+                            // default is the same as HORIZONTAL_LEFT
+                            default -> left(col, layout, cellLine);
+                        }
+                    }
+                    else appendPadding(col, col.width);
+                }
+                text.append(between[cells.length]);
+            }
+            
+            if (stats != null) stats.rendered(start);
+            return maxLines;
+        }
+        
+        
+        // the number of cells laid out into more than one line
+        private int wrappedCells(int numOfCells){
+            int wrapped = 0;
+            for (int i = 0; i < numOfCells; i++)
+                if (layouts[i].numOfLines > 1) wrapped++;
+            return wrapped;
+        }
+        
+        
+        /*
+         * The following methods append the given line of a cell to the text, padded up to 
+         * the column width by its display width. Nothing is allocated except for the padding 
+         * run of the column, which is created only once.
+         */
+        private void right(Column col, CellLayout layout, int line){
+            int padd = col.width - layout.widths[line];
+            appendPadding(col, padd);
+            appendLine(layout, line);
+        }
+        
+        
+        private void left(Column col, CellLayout layout, int line){
+            int padd = col.width - layout.widths[line];
+            appendLine(layout, line);
+            appendPadding(col, padd);
+        }
+        
+        
+        private void center(Column col, CellLayout layout, int line){
+            int padd = col.width - layout.widths[line];
+            int leftPadd  = padd / 2;
+            int rightPadd = padd / 2;
+            if (padd % 2 == 1) leftPadd++;
+            appendPadding(col, leftPadd);
+            appendLine(layout, line);
+            appendPadding(col, rightPadd);
+        }
+        
+        
+        // the last line of a truncated cell ends with the ellipsis
+        private void appendLine(CellLayout layout, int line){
+            text.append(layout.text, layout.breaks[2 * line], layout.breaks[2 * line + 1]);
+            if (layout.ellipsis != null && line == layout.numOfLines - 1)
+                text.append(layout.ellipsis);
+        }
+        
+        
+        private void appendPadding(Column col, int padd){
+            if (padd <= 0) return;
+            text.append(col.paddingRun(), 0, padd * paddingChar.length());
+        }
+    }
+    
+    
+    /* *************************************
+         R E N D E R   T A S K   C L A S S
+       ************************************* */
+    /*
+     * Renders a range of chunks of rows, for printRowsParallel(). 
+     * The range is split in halves, until a single chunk is left. 
+     * Every chunk is rendered by a new renderer of the given table into its own buffer.
+     * Tasks live only as long as printRowsParallel() and they are never serialized.
+     */
+    @SuppressWarnings("serial")
+    private static final class RenderTask extends RecursiveAction{
+        private final TabularPrint table;
+        private final List<?> rows;
+        private final TextBuffer[] chunks;
+        private final int chunkSize;
+        private final int from;   // the first chunk, inclusive
+        private final int to;     // the last chunk, exclusive
+        private final boolean separatorBeforeFirst;
+        private final boolean rowSeparators;
+        
+        private RenderTask(TabularPrint table, List<?> rows, TextBuffer[] chunks, int chunkSize, 
+                        int from, int to, boolean separatorBeforeFirst, boolean rowSeparators){
+            this.table = table;
+            this.rows = rows;
+            this.chunks = chunks;
+            this.chunkSize = chunkSize;
+            this.from = from;
+            this.to = to;
+            this.separatorBeforeFirst = separatorBeforeFirst;
+            this.rowSeparators = rowSeparators;
+        }
+        
+        @Override
+        protected void compute(){
+            if (to - from > 1){
+                int middle = (from + to) >>> 1;
+                invokeAll(new RenderTask(table, rows, chunks, chunkSize, from, middle, 
+                                                        separatorBeforeFirst, rowSeparators),
+                          new RenderTask(table, rows, chunks, chunkSize, middle, to, 
+                                                        separatorBeforeFirst, rowSeparators));
+                return;
+            }
+            
+            Renderer chunkRenderer = table.newRenderer(new TextBuffer());
+            int first = from * chunkSize;
+            int last = Math.min(rows.size(), first + chunkSize);
+            for (int i = first; i < last; i++){
+                chunkRenderer.stageCells(toCells(rows.get(i)));
+                chunkRenderer.printRow(i == 0 ? separatorBeforeFirst : rowSeparators);
+            }
+            chunks[from] = chunkRenderer.text;
+        }
+    }
+    
+    
+    /* *************************
+         P A R T   C L A S S
+       ************************* */
+    /*
+     * The rows collected by collector(), rendered into a buffer of their own.
+     */
+    private class Part{
+        private final TextBuffer text = new TextBuffer();
+        private final Renderer partRenderer = new Renderer(text);
+        private boolean hasRows = false;
+        
+        private void add(Object[] cells){
+            partRenderer.render(cells, showRowSeparators && hasRows);
+            hasRows = true;
+        }
+        
+        // appends the rows of the other part after the rows of this one
+        private Part join(Part other){
+            if (!other.hasRows) return this;
+            if (showRowSeparators && hasRows) text.append(rule(ROW_RULE));
+            text.append(other.text);
+            hasRows = true;
+            return this;
+        }
+        
+        private String toString(String head){
+            char[] bottomBorder = bottomBorder();
+            StringBuilder sb = new StringBuilder();
+            sb.append(head);
+            text.appendTo(sb, 0, text.length());
+            if (bottomBorder != null) sb.append(bottomBorder);
+            return sb.toString();
         }
     }
     
     
-    private void printHeaders(){
-        int arrayLength = 0;
-        for (Column col : allColumns)
-            if (!col.isSeparator)
-                arrayLength++;
+    /* *******************************************
+         L I N E   S P L I T E R A T O R   C L A S S
+       ******************************************* */
+    /*
+     * The lines of lines(Stream). The head is split into lines first, then every row 
+     * is rendered once its lines are needed, and finally the bottom border.
+     */
+    private class LineSpliterator extends Spliterators.AbstractSpliterator<String>{
+        private final Iterator<?> rows;
+        private final TextBuffer text = new TextBuffer();
+        private final Renderer lineRenderer = new Renderer(text);
+        private boolean hasRows = false;
+        private boolean isDone = false;
         
-        // collect data columns into an array
-        String[] forPrint = new String[arrayLength];
-        int index = 0;
-        for (Column col : allColumns){
-            if (!col.isSeparator){
-                forPrint[index] = col.header;
-                index++;
-            }
+        // the rendered text, not yet split into lines, and the start of the next line in it
+        private String pending;
+        private int next = 0;
+        
+        private LineSpliterator(String head, Iterator<?> rows){
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rows = rows;
+            this.pending = head;
         }
         
-        while (!isEmpty(forPrint)){
-            int colIndex = 0;
-            for (Column col : allColumns) {
-                if (col.isSeparator)
-                    printCell(col, col.header, true);
-                else{
-                    forPrint[colIndex] = printCell(col, forPrint[colIndex], true);
-                    colIndex++;
-                }
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action){
+            // a row of empty cells has no lines, so more than one row may be rendered
+            while (next == pending.length()){
+                if (isDone) return false;
+                pending = renderNext();
+                next = 0;
             }
-            textBuilder.append("\n");
+            
+            // every line ends with a line break
+            int end = pending.indexOf('\n', next);
+            if (end < 0) end = pending.length();
+            action.accept(pending.substring(next, end));
+            next = Math.min(end + 1, pending.length());
+            return true;
         }
         
-        if (showHeadersSeparator) printRowSeparator();
-    }
-    
-    
-    private void printHeadersAndTitle(){
-        if (showBorder && title != null){
-            // find the row width
-            int rowWidth = 0;
-            for (Column col : allColumns)
-                rowWidth += col.width;
-            
-            textBuilder.append(upLeftCorner);
-            textBuilder.append(horizontal.repeat(rowWidth-2));
-            textBuilder.append(upRightCorner);
-            textBuilder.append("\n");   
-        }
-        else if (showBorder){ // regardless of showHeaders
-            for (int i = 0; i < allColumns.size(); i++){
-                Column col = allColumns.get(i);
-
-                if (col.isSeparator && col.header.equals(vertical) && i == 0)
-                    textBuilder.append(upLeftCorner);
-                else if (col.isSeparator && col.header.equals(vertical) &&
-                                                                    i == allColumns.size() - 1)
-                    textBuilder.append(upRightCorner);
-                else if (col.isSeparator && col.header.equals(vertical))
-                    textBuilder.append(horizontalDown);
-                else
-                    textBuilder.append(horizontal.repeat(col.width));
+        // renders the next row or, after the last row, the bottom border
+        private String renderNext(){
+            text.setLength(0);
+            if (rows.hasNext()){
+                lineRenderer.stageCells(toCells(rows.next()));
+                lineRenderer.printRow(showRowSeparators && hasRows);
+                hasRows = true;
             }
-            textBuilder.append("\n");
+            else{
+                isDone = true;
+                char[] bottomBorder = bottomBorder();
+                if (bottomBorder != null) text.append(bottomBorder);
+            }
+            return text.toString();
         }
-
-        if (title != null) printTitle();
-        if (showHeaders) printHeaders();
-    }
-    
-    
-    private void addBorderSides(){
-        Column c = new Column();
-        c.width(vertical.length());
-        c.header(vertical);
-        c.horAlign = HORIZONTAL_CENTER;
-        c.isSeparator = true;
-        allColumns.add(0, c);
-        allColumns.add(c);
     }
     
     
-    private String printCell(Column col, String s, boolean write){
-        String rest = "";
-        String toPrint = s.substring(0, s.length());
+    /* *****************************************
+         R O W   P R O C E S S O R   C L A S S
+       ***************************************** */
+    /*
+     * The processor of asProcessor(). Rows are rendered as they arrive, into a queue 
+     * of items, and the queue is drained to the subscriber as far as it requests. 
+     * Signals may come from many threads, so the queue is drained by one thread at a time,
+     * the one that finds 'wip' at zero. Other threads only count a missed drain.
+     */
+    private class RowProcessor implements Flow.Processor<Object[], CharSequence>{
+        // the most rows requested from upstream at once
+        private static final int MAX_UPSTREAM_REQUEST = 64;
         
-        if (s.length() > col.width || s.contains("\n")){
-            int split = -1;
-            if (s.contains("\n"))
-                split = s.indexOf('\n');
-            
-            int charsToConsume = 0;
-            if (split < 0 || split > col.width)
-                split = col.width;
-            else if (split <= col.width)
-                charsToConsume = 1;
-            
-            toPrint = s.substring(0, split);
-            rest = s.substring(split + charsToConsume);
+        private final TextBuffer text = new TextBuffer();
+        private final Renderer rowRenderer = new Renderer(text);
+        private boolean hasRows = false;
+        
+        // the rendered items not yet published
+        private final Queue<CharSequence> items = new ConcurrentLinkedQueue<>();
+        private final AtomicLong numOfItems = new AtomicLong();
+        
+        // the items requested from downstream and the rows requested from upstream, 
+        // that are not delivered yet
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicLong pendingRows = new AtomicLong();
+        
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean isSubscribed = new AtomicBoolean();
+        private volatile Flow.Subscriber<? super CharSequence> downstream = null;
+        private volatile Flow.Subscription upstream = null;
+        private volatile boolean isUpstreamDone = false;
+        private volatile Throwable error = null;
+        private volatile boolean isCancelled = false;
+        
+        private RowProcessor(String head){
+            offer(head);
         }
         
-        if (write){
-            switch (col.horAlign) {
-                case HORIZONTAL_RIGHT -> textBuilder.append(right(col.width, toPrint));
-                case HORIZONTAL_LEFT -> textBuilder.append(left(col.width, toPrint));
-                case HORIZONTAL_CENTER -> textBuilder.append(center(col.width, toPrint));
-                // default is the same as HORIZONTAL_LEFT
-                default -> textBuilder.append(left(col.width, toPrint));
+        
+        /* the subscriber side, that is the rows */
+        @Override
+        public void onSubscribe(Flow.Subscription subscription){
+            if (upstream != null || isCancelled){
+                subscription.cancel();
+                return;
             }
+            upstream = subscription;
+            drain();
         }
-        return rest;
-    }
-
-    
-    private void printRowSeparator(){
-        for (int i = 0; i < allColumns.size(); i++){
-            Column col = allColumns.get(i);
-
-            if (col.isSeparator && col.header.equals(vertical) && i == 0)
-                textBuilder.append(horizontalStart);
-            else if (col.isSeparator && col.header.equals(vertical) &&
-                                                                i == allColumns.size() - 1)
-                textBuilder.append(horizontalEnd);
-            else if (col.isSeparator && col.header.equals(vertical))
-                textBuilder.append(cross);
-            else
-                textBuilder.append(horizontal.repeat(col.width));
+        
+        @Override
+        public void onNext(Object[] cells){
+            text.setLength(0);
+            rowRenderer.render(cells, showRowSeparators && hasRows);
+            hasRows = true;
+            // a row of empty cells has no text, and so it is not published
+            if (text.length() > 0) offer(text.toString());
+            pendingRows.decrementAndGet();
+            drain();
         }
-        textBuilder.append("\n");
-    }
-    
-    
-    /* ***********************************
-         P R I V A T E   U T I L I T I E S
-       *********************************** */
-    private String objectToString(Object obj, Column col){
-        if (obj == null) return "";
-        String result = obj.toString();
-        if (obj instanceof Integer)
-            result = Integer.toString((Integer) obj);
-
-        else if (obj instanceof Long)
-            result = Long.toString((Long) obj);
-
-        else if (obj instanceof Float && col.decimals >= 0){
-            float f = (float) obj;
-            result = round((double) f, col.decimals);
+        
+        @Override
+        public void onError(Throwable throwable){
+            error = throwable;
+            isUpstreamDone = true;
+            drain();
         }
-
-        else if (obj instanceof Float && col.decimals < 0)
-            result = Float.toString((Float) obj);
-
-        else if (obj instanceof Double && col.decimals >= 0)
-            result = round((double) obj, col.decimals);
-
-        else if (obj instanceof Double && col.decimals < 0)
-            result = Double.toString((Double) obj);
-
-        else if (obj instanceof String){
-            String s = (String) obj;
-            if (s.contains("\r") || s.contains("\n")){
-                s = s.replace("\r\n", "\n");
-                s = s.replace("\n\r", "\n");
-                s = s.replace("\r", "\n");
+        
+        @Override
+        public void onComplete(){
+            char[] bottomBorder = bottomBorder();
+            if (bottomBorder != null) offer(new String(bottomBorder));
+            isUpstreamDone = true;
+            drain();
+        }
+        
+        
+        /* the publisher side, that is the rendered text */
+        @Override
+        public void subscribe(Flow.Subscriber<? super CharSequence> subscriber){
+            if (!isSubscribed.compareAndSet(false, true)){
+                subscriber.onSubscribe(new Flow.Subscription(){
+                    @Override public void request(long n){}
+                    @Override public void cancel(){}
+                });
+                subscriber.onError(new IllegalStateException("the processor accepts a single subscriber"));
+                return;
             }
-            result = s;
+            
+            subscriber.onSubscribe(new Flow.Subscription(){
+                @Override
+                public void request(long n){
+                    if (n <= 0){
+                        error = new IllegalArgumentException("non-positive request: " + n);
+                        cancelUpstream();
+                    }
+                    else requested.getAndAccumulate(n, (r, m) -> r + m < 0 ? Long.MAX_VALUE : r + m);
+                    drain();
+                }
+                
+                @Override
+                public void cancel(){
+                    isCancelled = true;
+                    cancelUpstream();
+                }
+            });
+            // the subscriber is known to drain() only after onSubscribe()
+            downstream = subscriber;
+            drain();
         }
-//        else result = obj.toString();
         
-        return result;
-    }
-    
-    
-    private boolean isEmpty(String[] arrayOfStrings){
-        for (String s : arrayOfStrings)
-            if (!s.isEmpty()) return false;
-        return true;
-    }
-    
-    
-    private String right(int width, String s){
-        int padd = width - s.length();
-        return paddingChar.repeat(padd) + s;
-    }
-    
-    private String left(int width, String s){
-        int padd = width - s.length();
-        return s + paddingChar.repeat(padd);
-    }
-    
-    
-    private String center(int width, String s){
-        int padd = width - s.length();
-        int leftPadd  = padd / 2;
-        int rightPadd = padd / 2;
-        if (padd % 2 == 1) leftPadd++;
-        return paddingChar.repeat(leftPadd) + s + paddingChar.repeat(rightPadd);
+        
+        private void offer(CharSequence item){
+            items.offer(item);
+            numOfItems.incrementAndGet();
+        }
+        
+        
+        private void cancelUpstream(){
+            Flow.Subscription subscription = upstream;
+            if (subscription != null) subscription.cancel();
+        }
+        
+        
+        /*
+         * Publishes as many items as requested, signals the end of the table, 
+         * and requests as many rows as needed for the items requested.
+         */
+        private void drain(){
+            if (wip.getAndIncrement() != 0) return;
+            
+            int missed = 1;
+            do {
+                Flow.Subscriber<? super CharSequence> subscriber = downstream;
+                if (subscriber != null && !isCancelled){
+                    if (error != null){
+                        isCancelled = true;
+                        items.clear();
+                        subscriber.onError(error);
+                    }
+                    else{
+                        publish(subscriber);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+        
+        
+        private void publish(Flow.Subscriber<? super CharSequence> subscriber){
+            long published = 0;
+            long demand = requested.get();
+            while (published < demand){
+                CharSequence item = items.poll();
+                if (item == null) break;
+                numOfItems.decrementAndGet();
+                subscriber.onNext(item);
+                published++;
+                if (isCancelled) return;
+            }
+            if (published > 0 && demand != Long.MAX_VALUE)
+                requested.addAndGet(-published);
+            
+            if (isUpstreamDone && items.isEmpty()){
+                isCancelled = true;
+                subscriber.onComplete();
+                return;
+            }
+            
+            // every row makes a single item at most
+            Flow.Subscription subscription = upstream;
+            if (subscription == null || isUpstreamDone) return;
+            long wanted = Math.min(MAX_UPSTREAM_REQUEST, 
+                                requested.get() - numOfItems.get() - pendingRows.get());
+            if (wanted > 0){
+                pendingRows.addAndGet(wanted);
+                subscription.request(wanted);
+            }
+        }
     }
     
     
-    private String round(double val, int numberOfDecimals){
-        double shift = Math.pow(10.0, numberOfDecimals);
-        double shiftedVal = Math.floor((val * shift) + 0.5);
-        double rounded = shiftedVal / shift;
-        return String.format("%."+ Integer.toString(numberOfDecimals) + "f", rounded);
+    /* *************************************
+         C E L L   L A Y O U T   C L A S S
+       ************************************* */
+    /*
+     * The lines of a single cell, as pairs of start and end indexes into the text.
+     */
+    private static class CellLayout{
+        private CharSequence text = "";
+        private int[] breaks = new int[16];
+        private int numOfLines = 0;
+        
+        // the display width of every line
+        private int[] widths = new int[8];
+        
+        // the ellipsis at the end of the last line, if the text is truncated. Otherwise null
+        private String ellipsis = null;
+        
+        // the number of blank lines above the cell, because of vertical alignment
+        private int offset = 0;
+        
+        // the first line to print. The first line is skipped if it has been absorbed by the offset
+        private int firstLine = 0;
+        
+        private void addLine(int start, int end, int width){
+            if (2 * numOfLines + 2 > breaks.length){
+                breaks = Arrays.copyOf(breaks, 2 * breaks.length);
+                widths = Arrays.copyOf(widths, breaks.length / 2);
+            }
+            breaks[2 * numOfLines] = start;
+            breaks[2 * numOfLines + 1] = end;
+            widths[numOfLines] = width;
+            numOfLines++;
+        }
     }
     
     
@@ -875,7 +2718,25 @@ public class TabularPrint {
         protected int horAlign = HORIZONTAL_LEFT;
         protected int verAlign = VERTICAL_TOP;
         protected int decimals = -1;
+        protected char decimalSeparator = DecimalFormatSymbols
+                .getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator();
         protected boolean isSeparator = false;
+        
+        // the width is computed from the data, within these limits. See autoWidth()
+        protected boolean isAutoWidth = false;
+        protected int minWidth = 1;
+        protected int maxWidth = Integer.MAX_VALUE;
+        
+        // the text of a cell is truncated beyond this number of lines. See maxLines()
+        protected int maxLines = Integer.MAX_VALUE;
+        protected String ellipsis = "\u2026";       // …
+        protected int ellipsisWidth = 1;
+        
+        // the padding character repeated 'width' times, created on first use
+        private String paddingRun = null;
+        
+        // the cell for missing data, that is 'width' spaces, created on first use
+        private String blank = null;
 
         
         /**
@@ -885,7 +2746,93 @@ public class TabularPrint {
          * @return the column object for chain invocation
          */
         public Column width(int width) {
-            this.width = width;
+            this.isAutoWidth = false;
+            resize(width);
+            return this;
+        }
+        
+        
+        /**
+         * Sets the width of this column to fit its data, that is the longest line among 
+         * its header and its cells, but not less than {@code minWidth} and not more than 
+         * {@code maxWidth}. Longer lines are wrapped, as usual.
+         * <p>
+         * Rows are held in memory until the width is known. By default, the width is computed
+         * from all rows, when {@link TabularPrint#getString()} or {@link TabularPrint#finish()}
+         * is called. For large tables, {@link TabularPrint#setAutoWidthSample(int)} computes
+         * the width from the first rows only, so that memory stays bounded.
+         * 
+         * @param minWidth the minimum width
+         * @param maxWidth the maximum width
+         * @return the column object for chain invocation
+         * @throws IllegalArgumentException if {@code minWidth} is less than 1 or greater 
+         * than {@code maxWidth}
+         */
+        public Column autoWidth(int minWidth, int maxWidth){
+            if (minWidth < 1 || minWidth > maxWidth)
+                throw new IllegalArgumentException("minWidth: " + minWidth + ", maxWidth: " + maxWidth);
+            this.isAutoWidth = true;
+            this.minWidth = minWidth;
+            this.maxWidth = maxWidth;
+            return this;
+        }
+        
+        
+        /**
+         * Works just like {@link autoWidth(int, int)} with no limits on the width.
+         * 
+         * @return the column object for chain invocation
+         */
+        public Column autoWidth(){
+            return autoWidth(1, Integer.MAX_VALUE);
+        }
+        
+        
+        /**
+         * Sets the maximum number of lines of the cells of this column, the header included.
+         * The text of a cell that does not fit is truncated, and its last visible line 
+         * ends with the ellipsis, which is '\u2026' by default. See {@link ellipsis(String)}.
+         * <p>
+         * Only the visible lines of a cell are laid out, and the rest of its text is 
+         * never read, so a huge cell costs no more to print than the lines that are shown.
+         * 
+         * @param maxLines the maximum number of lines of a cell
+         * @return the column object for chain invocation
+         * @throws IllegalArgumentException if {@code maxLines} is less than 1
+         */
+        public Column maxLines(int maxLines){
+            if (maxLines < 1)
+                throw new IllegalArgumentException("maxLines: " + maxLines);
+            this.maxLines = maxLines;
+            return this;
+        }
+        
+        
+        /**
+         * Works just like {@link maxLines(int)} with a single line, so the text of every cell
+         * is cut at the column width, instead of being wrapped.
+         * 
+         * @return the column object for chain invocation
+         */
+        public Column truncate(){
+            return maxLines(1);
+        }
+        
+        
+        /**
+         * Sets the marker at the end of a truncated cell. An empty marker truncates 
+         * the text without any mark. A marker wider than the column is left out.
+         * 
+         * @param ellipsis the marker of truncated text
+         * @return the column object for chain invocation
+         * @throws IllegalArgumentException if the marker is null, or if it contains 
+         * a line break
+         */
+        public Column ellipsis(String ellipsis){
+            if (ellipsis == null || ellipsis.indexOf('\n') >= 0 || ellipsis.indexOf('\r') >= 0)
+                throw new IllegalArgumentException("ellipsis: " + ellipsis);
+            this.ellipsis = ellipsis;
+            this.ellipsisWidth = DisplayWidth.of(ellipsis, 0, ellipsis.length());
             return this;
         }
         
@@ -987,5 +2934,232 @@ public class TabularPrint {
             this.decimals = numberOfDecimals;
             return this;
         }
+        
+        
+        /**
+         * Sets the decimal separator, in case of numerical data with {@code decimals(int)}.
+         * The default is the decimal separator of the default locale, at the time 
+         * the column is created.
+         * 
+         * @param separator the decimal separator
+         * @return the column object for chain invocation
+         */
+        public Column decimalSeparator(char separator){
+            this.decimalSeparator = separator;
+            return this;
+        }
+        
+        
+        /*
+         * Appends the given number rounded half up to 'decimals' digits, with the
+         * digits written straight into the buffer.
+         * The number is scaled by a power of ten from a table and rounded as a whole number. 
+         * Numbers too large for that, NaN and infinities go through round().
+         */
+        private void appendDecimal(StringBuilder buffer, double value){
+            if (decimals >= POWERS_OF_TEN.length){
+                buffer.append(round(value, decimals, decimalSeparator));
+                return;
+            }
+            
+            double rounded = Math.floor(value * POWERS_OF_TEN[decimals] + 0.5);
+            // up to 15 digits, the rounded number is printed exactly as before, when it was 
+            // divided back and formatted. This also excludes NaN and infinities
+            if (!(Math.abs(rounded) < 1e15)){
+                buffer.append(round(value, decimals, decimalSeparator));
+                return;
+            }
+            
+            long digits = (long) rounded;
+            if (digits < 0){
+                buffer.append('-');
+                digits = -digits;
+            }
+            long scale = POWERS_OF_TEN[decimals];
+            buffer.append(digits / scale);
+            if (decimals == 0) return;
+            
+            buffer.append(decimalSeparator);
+            long fraction = digits % scale;
+            for (long p = scale / 10; p > 0; p /= 10)
+                buffer.append((char) ('0' + (fraction / p) % 10));
+        }
+        
+        
+        // a copy of this column, for the given table. See compile()
+        private Column copyTo(TabularPrint table){
+            Column c = table.new Column();
+            c.width = width;
+            c.header = header;
+            c.horAlign = horAlign;
+            c.verAlign = verAlign;
+            c.decimals = decimals;
+            c.decimalSeparator = decimalSeparator;
+            c.isSeparator = isSeparator;
+            c.isAutoWidth = isAutoWidth;
+            c.minWidth = minWidth;
+            c.maxWidth = maxWidth;
+            c.maxLines = maxLines;
+            c.ellipsis = ellipsis;
+            c.ellipsisWidth = ellipsisWidth;
+            return c;
+        }
+        
+        
+        private void resize(int width){
+            this.width = width;
+            this.paddingRun = null;
+            this.blank = null;
+            invalidateRules();
+        }
+        
+        
+        private String paddingRun(){
+            if (paddingRun == null)
+                paddingRun = paddingChar.repeat(width);
+            return paddingRun;
+        }
+        
+        
+        private String blank(){
+            if (blank == null)
+                blank = " ".repeat(width);
+            return blank;
+        }
     }    
+    
+    
+    /* *********************
+         R O W   C L A S S
+       ********************* */ 
+    /**
+     * A row being filled cell by cell, returned by {@link TabularPrint#row()}.
+     * Cells are filled from left to right. Cells beyond the number of columns are ignored 
+     * and missing cells are left blank, just like in {@link TabularPrint#printRow(Object[])}.
+     */
+    public class Row{
+        private int index = 0;
+        
+        
+        /**
+         * Sets the next cell to the given text.
+         * 
+         * @param s the text of the cell. {@code null} means an empty cell
+         * @return the row object for chain invocation
+         */
+        public Row text(CharSequence s){
+            if (index >= renderer.rowCells.length) return skip();
+            return set(s == null ? "" : normalizeLineBreaks(s, renderer.columns[index]));
+        }
+        
+        
+        /**
+         * Sets the next cell to the given value, formatted as in 
+         * {@link TabularPrint#printRow(Object[])}.
+         * 
+         * @param obj the value of the cell
+         * @return the row object for chain invocation
+         */
+        public Row cell(Object obj){
+            if (index >= renderer.rowCells.length) return skip();
+            return set(objectToString(obj, renderer.columns[index], buffer()));
+        }
+        
+        
+        /**
+         * Sets the next cell to the given {@code int}.
+         * 
+         * @param value the value of the cell
+         * @return the row object for chain invocation
+         */
+        public Row intCell(int value){
+            if (index >= renderer.rowCells.length) return skip();
+            return set(buffer().append(value));
+        }
+        
+        
+        /**
+         * Sets the next cell to the given {@code long}.
+         * 
+         * @param value the value of the cell
+         * @return the row object for chain invocation
+         */
+        public Row longCell(long value){
+            if (index >= renderer.rowCells.length) return skip();
+            return set(buffer().append(value));
+        }
+        
+        
+        /**
+         * Sets the next cell to the given {@code double}, rounded to the number of decimals
+         * of the column, if any.
+         * 
+         * @param value the value of the cell
+         * @return the row object for chain invocation
+         */
+        public Row doubleCell(double value){
+            if (index >= renderer.rowCells.length) return skip();
+            Column col = renderer.columns[index];
+            StringBuilder buffer = buffer();
+            if (col.decimals >= 0)
+                col.appendDecimal(buffer, value);
+            else
+                buffer.append(value);
+            return set(buffer);
+        }
+        
+        
+        /**
+         * Sets the next cell to the given {@code float}, rounded to the number of decimals
+         * of the column, if any.
+         * 
+         * @param value the value of the cell
+         * @return the row object for chain invocation
+         */
+        public Row floatCell(float value){
+            if (index >= renderer.rowCells.length) return skip();
+            Column col = renderer.columns[index];
+            StringBuilder buffer = buffer();
+            if (col.decimals >= 0)
+                col.appendDecimal(buffer, value);
+            else
+                buffer.append(value);
+            return set(buffer);
+        }
+        
+        
+        /**
+         * Prints this row. Missing cells are left blank.
+         */
+        public void end(){
+            for (int i = index; i < renderer.rowCells.length; i++)
+                renderer.rowCells[i] = renderer.columns[i].blank();
+            index = renderer.rowCells.length;
+            printPreparedRow();
+        }
+        
+        
+        // leaves the next cell blank, like a missing cell
+        private Row blank(){
+            if (index >= renderer.rowCells.length) return skip();
+            return set(renderer.columns[index].blank());
+        }
+        
+        private StringBuilder buffer(){
+            StringBuilder buffer = renderer.cellBuffers[index];
+            buffer.setLength(0);
+            return buffer;
+        }
+        
+        private Row set(CharSequence s){
+            if (index < renderer.rowCells.length) renderer.rowCells[index] = s;
+            index++;
+            return this;
+        }
+        
+        private Row skip(){
+            index++;
+            return this;
+        }
+    }
 }
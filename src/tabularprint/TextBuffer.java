@@ -0,0 +1,322 @@
+package tabularprint;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/*
+ * The text of a table, kept in chunks of fixed size. The buffer grows by adding chunks,
+ * so the text already appended is never copied, and its length is not limited by
+ * the maximum size of an array.
+ *
+ * Text is only appended, except for setLength(), which is used only in streaming mode.
+ * Therefore, a snapshot of the text so far remains valid while more text is appended,
+ * and it can be read by other threads, once it is handed over to them.
+ */
+final class TextBuffer {
+
+    // the size of a chunk is a power of two, so that positions are split by shifting
+    private static final int CHUNK_SHIFT = 14;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;   // 16K characters
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // the chunks, of which the first 'used' ones hold text. Chunks beyond them
+    // are left over from a previous setLength() and they are reused
+    private char[][] chunks = new char[4][];
+    private int used = 0;
+
+    // the number of chunks allocated, reused ones included
+    private int allocated = 0;
+
+    // the last used chunk and the position of the next character in it
+    private char[] current = null;
+    private int pos = CHUNK_SIZE;
+
+
+    /*
+     * Does something with a range of characters of a chunk.
+     */
+    interface ChunkConsumer{
+        void accept(char[] chunk, int offset, int length) throws IOException;
+    }
+
+
+    /* *********************************************************************
+                                 A P P E N D
+       ********************************************************************* */
+    long length(){
+        return (long) (used - 1) * CHUNK_SIZE + pos;
+    }
+
+
+    // the number of characters the buffer holds before it allocates another chunk
+    long capacity(){
+        return (long) allocated * CHUNK_SIZE;
+    }
+
+
+    TextBuffer append(char c){
+        if (pos == CHUNK_SIZE) nextChunk();
+        current[pos++] = c;
+        return this;
+    }
+
+
+    TextBuffer append(String s){
+        return append(s, 0, s.length());
+    }
+
+
+    TextBuffer append(CharSequence s, int start, int end){
+        while (start < end){
+            if (pos == CHUNK_SIZE) nextChunk();
+            int n = Math.min(end - start, CHUNK_SIZE - pos);
+            if (s instanceof String)
+                ((String) s).getChars(start, start + n, current, pos);
+            else if (s instanceof StringBuilder)
+                ((StringBuilder) s).getChars(start, start + n, current, pos);
+            else{
+                for (int i = 0; i < n; i++)
+                    current[pos + i] = s.charAt(start + i);
+            }
+            pos += n;
+            start += n;
+        }
+        return this;
+    }
+
+
+    TextBuffer append(char[] s){
+        int start = 0;
+        while (start < s.length){
+            if (pos == CHUNK_SIZE) nextChunk();
+            int n = Math.min(s.length - start, CHUNK_SIZE - pos);
+            System.arraycopy(s, start, current, pos, n);
+            pos += n;
+            start += n;
+        }
+        return this;
+    }
+
+
+    TextBuffer append(TextBuffer other){
+        try {
+            other.forEachChunk(0, other.length(), (chunk, offset, length) -> {
+                while (length > 0){
+                    if (pos == CHUNK_SIZE) nextChunk();
+                    int n = Math.min(length, CHUNK_SIZE - pos);
+                    System.arraycopy(chunk, offset, current, pos, n);
+                    pos += n;
+                    offset += n;
+                    length -= n;
+                }
+            });
+        } catch (IOException e) {
+            // nothing is written anywhere but to this buffer
+            throw new AssertionError(e);
+        }
+        return this;
+    }
+
+
+    /*
+     * Cuts the text to the given length. The chunks are kept, to be reused.
+     */
+    void setLength(long length){
+        if (length == 0){
+            used = 0;
+            current = null;
+            pos = CHUNK_SIZE;
+            return;
+        }
+        used = (int) ((length - 1) >>> CHUNK_SHIFT) + 1;
+        current = chunks[used - 1];
+        pos = (int) (length - (long) (used - 1) * CHUNK_SIZE);
+    }
+
+
+    /*
+     * Allocates the chunks for the given length of text, so that the buffer does not grow 
+     * until then.
+     */
+    void ensureCapacity(long length){
+        int needed = (int) Math.min(Integer.MAX_VALUE - 8, (length + CHUNK_MASK) >>> CHUNK_SHIFT);
+        if (needed > chunks.length)
+            chunks = Arrays.copyOf(chunks, needed);
+        for (int i = used; i < needed; i++){
+            if (chunks[i] == null){
+                chunks[i] = new char[CHUNK_SIZE];
+                allocated++;
+            }
+        }
+    }
+
+
+    /*
+     * Empties the buffer without reusing its chunks, which may still be read by snapshots.
+     */
+    void release(){
+        chunks = new char[chunks.length][];
+        allocated = 0;
+        used = 0;
+        current = null;
+        pos = CHUNK_SIZE;
+    }
+
+
+    private void nextChunk(){
+        if (used == chunks.length)
+            chunks = Arrays.copyOf(chunks, 2 * chunks.length);
+        if (chunks[used] == null){
+            chunks[used] = new char[CHUNK_SIZE];
+            allocated++;
+        }
+        current = chunks[used++];
+        pos = 0;
+    }
+
+
+    /* *********************************************************************
+                                   R E A D
+       ********************************************************************* */
+    /*
+     * Passes the characters [start, end) to the consumer, chunk by chunk.
+     */
+    void forEachChunk(long start, long end, ChunkConsumer consumer) throws IOException{
+        forEachChunk(chunks, start, end, consumer);
+    }
+
+
+    private static void forEachChunk(char[][] chunks, long start, long end,
+                                                ChunkConsumer consumer) throws IOException{
+        while (start < end){
+            int offset = (int) (start & CHUNK_MASK);
+            int n = (int) Math.min(end - start, CHUNK_SIZE - offset);
+            consumer.accept(chunks[(int) (start >>> CHUNK_SHIFT)], offset, n);
+            start += n;
+        }
+    }
+
+
+    /*
+     * Writes the characters [start, end) to the given sink, chunk by chunk.
+     */
+    void writeTo(Appendable out, long start, long end) throws IOException{
+        if (out instanceof Writer)
+            forEachChunk(start, end, ((Writer) out)::write);
+        else if (out instanceof StringBuilder)
+            appendTo((StringBuilder) out, start, end);
+        else
+            forEachChunk(start, end, (chunk, offset, length) ->
+                                        out.append(CharBuffer.wrap(chunk, offset, length)));
+    }
+
+
+    /*
+     * Appends the characters [start, end) to the given builder.
+     */
+    void appendTo(StringBuilder sb, long start, long end){
+        while (start < end){
+            int offset = (int) (start & CHUNK_MASK);
+            int n = (int) Math.min(end - start, CHUNK_SIZE - offset);
+            sb.append(chunks[(int) (start >>> CHUNK_SHIFT)], offset, n);
+            start += n;
+        }
+    }
+
+
+    /*
+     * Returns the characters [start, end) as a String.
+     */
+    String substring(long start, long end){
+        if (end - start > Integer.MAX_VALUE - 8)
+            throw new OutOfMemoryError("the text is too large for a String: " + (end - start));
+        char[] chars = new char[(int) (end - start)];
+        getChars(chunks, start, end, chars, 0);
+        return new String(chars);
+    }
+
+
+    @Override
+    public String toString(){
+        return substring(0, length());
+    }
+
+
+    /*
+     * Returns a read-only view of the text so far, followed by the given tail,
+     * which may be null. The text is not copied.
+     */
+    CharSequence snapshot(char[] tail){
+        long length = length() + (tail == null ? 0 : tail.length);
+        if (length > Integer.MAX_VALUE)
+            throw new IllegalStateException("the text is too large for a CharSequence: " + length);
+        return new Snapshot(chunks, (int) length(), tail == null ? new char[0] : tail);
+    }
+
+
+    private static void getChars(char[][] chunks, long start, long end, char[] dst, int dstBegin){
+        try {
+            int[] at = { dstBegin };
+            forEachChunk(chunks, start, end, (chunk, offset, length) -> {
+                System.arraycopy(chunk, offset, dst, at[0], length);
+                at[0] += length;
+            });
+        } catch (IOException e) {
+            // nothing is written anywhere but to the array
+            throw new AssertionError(e);
+        }
+    }
+
+
+    /* *******************************
+         S N A P S H O T   C L A S S
+       ******************************* */
+    /*
+     * The text of a buffer up to some length, followed by a tail.
+     * It holds the chunks themselves, so it is not affected by text appended later.
+     */
+    private static final class Snapshot implements CharSequence{
+        private final char[][] chunks;
+        private final int length;   // the length of the text in the chunks
+        private final char[] tail;
+
+        private Snapshot(char[][] chunks, int length, char[] tail){
+            // the array of chunks may be replaced when the buffer grows, but not the chunks
+            this.chunks = chunks;
+            this.length = length;
+            this.tail = tail;
+        }
+
+        @Override
+        public int length(){
+            return length + tail.length;
+        }
+
+        @Override
+        public char charAt(int index){
+            if (index < 0 || index >= length())
+                throw new IndexOutOfBoundsException(index);
+            if (index >= length) return tail[index - length];
+            return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end){
+            if (start < 0 || start > end || end > length())
+                throw new IndexOutOfBoundsException("start " + start + ", end " + end);
+            char[] chars = new char[end - start];
+            int inChunks = Math.max(0, Math.min(end, length) - start);
+            getChars(chunks, start, start + inChunks, chars, 0);
+            int tailStart = Math.max(start, length) - length;
+            System.arraycopy(tail, tailStart, chars, inChunks, end - start - inChunks);
+            return new String(chars);
+        }
+
+        @Override
+        public String toString(){
+            return subSequence(0, length()).toString();
+        }
+    }
+}
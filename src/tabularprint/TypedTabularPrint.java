@@ -0,0 +1,325 @@
+package tabularprint;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A {@code TabularPrint} whose rows are objects of a given type, that is either a record
+ * or a class with getters annotated by {@link TableColumn}. For example
+ * <pre>
+ *     record Order(int id, String customer, double total){}
+ *
+ *     TypedTabularPrint&lt;Order&gt; tp = TabularPrint.forType(Order.class);
+ *     for (Order order : orders)
+ *         tp.printRow(order);
+ *     System.out.println(tp.getString());
+ * </pre>
+ * There is a column for every record component, or annotated getter, with the name
+ * of the property as its header. Numbers are aligned to the right, floating-point numbers
+ * are rounded to 2 decimals and every column is wide enough for its header and for any value 
+ * of its type, for example 11 characters for an {@code int}, unless {@link TableColumn} 
+ * says otherwise. Columns are separated by column separators.
+ * <p>
+ * Since the widths are fixed, every row is printed right away, which is what a table 
+ * that writes to a sink needs. A column sized to its data, by 
+ * {@link TableColumn#autoWidth()}, holds the rows until its width is known.
+ * <p>
+ * The accessors of a type are looked up once, and compiled into lambdas which are shared
+ * by all tables of the type. So, there is no reflection while rows are printed,
+ * and primitive values are formatted straight from the primitives, without boxing.
+ * <p>
+ * The title and the decoration are set on the underlying table, returned by {@link table()}.
+ *
+ * @param <T> the type of the rows
+ * @see TableColumn
+ */
+public class TypedTabularPrint<T> {
+
+    // the columns of every type, resolved on first use
+    private static final ClassValue<Binding[]> BINDINGS = new ClassValue<>(){
+        @Override
+        protected Binding[] computeValue(Class<?> type){
+            return bind(type);
+        }
+    };
+
+    private final TabularPrint table;
+    private final Binding[] bindings;
+
+
+    /* *********************************************************************
+                            C O N S T R U C T O R S
+       ********************************************************************* */
+    /**
+     * Adds the columns of the given type to the given table, and shows the headers.
+     * The table is expected to have no columns of its own.
+     *
+     * @param type the type of the rows
+     * @param table the table to print the rows to, for example one that writes to a sink
+     * @throws IllegalArgumentException if the type has no columns, or if its accessors
+     * are not accessible
+     */
+    public TypedTabularPrint(Class<T> type, TabularPrint table){
+        this.table = table;
+        this.bindings = BINDINGS.get(type);
+
+        for (int i = 0; i < bindings.length; i++){
+            Binding b = bindings[i];
+            if (i > 0) table.addColumnSeparator();
+            TabularPrint.Column col = table.addColumn().header(b.header);
+            if (b.isAutoWidth) col.autoWidth(); else col.width(b.width);
+            if (b.isNumber) col.horizontalRight();
+            if (b.decimals >= 0) col.decimals(b.decimals);
+        }
+        table.showHeaders(true);
+    }
+
+
+    /**
+     * Works just like {@link TypedTabularPrint(Class, TabularPrint)} with a new
+     * {@code TabularPrint}, which keeps the table in memory.
+     *
+     * @param type the type of the rows
+     */
+    public TypedTabularPrint(Class<T> type){
+        this(type, new TabularPrint());
+    }
+
+
+    /* *********************************************************************
+                      P R I N T I N G   M E T H O D S
+       ********************************************************************* */
+    /**
+     * Prints the given object as a row, one cell for every column.
+     *
+     * @param obj the object to be printed
+     */
+    public void printRow(T obj){
+        TabularPrint.Row row = table.row();
+        for (Binding b : bindings)
+            b.accessor.cell(obj, row);
+        row.end();
+    }
+
+
+    /**
+     * Prints the given objects, one row for every object.
+     *
+     * @param objs the objects to be printed
+     */
+    public void printRows(Iterable<? extends T> objs){
+        for (T obj : objs)
+            printRow(obj);
+    }
+
+
+    /**
+     * Returns the underlying table, to set the title and the decoration, or to finish it.
+     *
+     * @return the underlying table
+     */
+    public TabularPrint table(){
+        return table;
+    }
+
+
+    /**
+     * Returns the table as a {@code String}, just like {@link TabularPrint#getString()}.
+     *
+     * @return the table as a {@code String}
+     */
+    public String getString(){
+        return table.getString();
+    }
+
+
+    /* *******************************
+         B I N D I N G   C L A S S
+       ******************************* */
+    /*
+     * Prints a property of an object into the next cell of a row.
+     */
+    private interface Accessor{
+        void cell(Object obj, TabularPrint.Row row);
+    }
+
+
+    /*
+     * A column of a type, that is a property and the way it is printed.
+     */
+    private static final class Binding{
+        private final String header;
+        private final int width;
+        private final boolean isAutoWidth;
+        private final int decimals;
+        private final boolean isNumber;
+        private final Accessor accessor;
+
+        private Binding(MethodHandles.Lookup lookup, Method getter, String name, TableColumn spec){
+            Class<?> type = getter.getReturnType();
+            boolean isFloating = type == double.class || type == float.class
+                                    || type == Double.class || type == Float.class;
+
+            this.header = spec != null && !spec.header().isEmpty() ? spec.header() : name;
+            this.width = spec != null && spec.width() > 0 ? spec.width() 
+                            : Math.max(typeWidth(type), DisplayWidth.of(header, 0, header.length()));
+            this.isAutoWidth = spec != null && spec.autoWidth();
+            if (spec != null && spec.decimals() >= 0)
+                this.decimals = spec.decimals();
+            else
+                this.decimals = isFloating ? 2 : -1;
+            this.isNumber = (type.isPrimitive() && type != boolean.class && type != char.class)
+                                    || Number.class.isAssignableFrom(type);
+            this.accessor = accessor(lookup, getter);
+        }
+    }
+
+
+    /* ***********************************
+         P R I V A T E   U T I L I T I E S
+       *********************************** */
+    /*
+     * Finds the columns of the given type, that is the components of a record,
+     * or the annotated getters of a class.
+     */
+    private static Binding[] bind(Class<?> type){
+        List<Method> getters = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        if (type.isRecord()){
+            for (RecordComponent rc : type.getRecordComponents()){
+                getters.add(rc.getAccessor());
+                names.add(rc.getName());
+            }
+        }
+        else{
+            for (Method m : type.getMethods()){
+                if (!m.isAnnotationPresent(TableColumn.class)) continue;
+                if (m.getParameterCount() != 0 || m.getReturnType() == void.class
+                                                    || Modifier.isStatic(m.getModifiers()))
+                    throw new IllegalArgumentException("not a getter: " + m);
+                getters.add(m);
+            }
+            getters.sort(Comparator.comparingInt((Method m) -> m.getAnnotation(TableColumn.class).order())
+                                    .thenComparing(Method::getName));
+            for (Method m : getters)
+                names.add(propertyName(m.getName()));
+        }
+        if (getters.isEmpty())
+            throw new IllegalArgumentException("no columns in " + type.getName()
+                                    + ", it is neither a record nor has any @TableColumn getters");
+
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("the accessors of " + type.getName()
+                                                            + " are not accessible", e);
+        }
+
+        // the annotation of a record component is found on its accessor too
+        Binding[] bindings = new Binding[getters.size()];
+        for (int i = 0; i < bindings.length; i++){
+            Method m = getters.get(i);
+            bindings[i] = new Binding(lookup, m, names.get(i), m.getAnnotation(TableColumn.class));
+        }
+        return bindings;
+    }
+
+
+    /*
+     * Compiles the given getter into a lambda, specialized for its return type, so that
+     * primitives are passed to the row without boxing.
+     */
+    private static Accessor accessor(MethodHandles.Lookup lookup, Method getter){
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflect(getter);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("not accessible: " + getter, e);
+        }
+
+        Class<?> type = getter.getReturnType();
+        if (type == int.class || type == short.class || type == byte.class){
+            ToIntFunction<Object> f = lambda(lookup, handle, ToIntFunction.class, "applyAsInt", int.class);
+            return (obj, row) -> row.intCell(f.applyAsInt(obj));
+        }
+        if (type == long.class){
+            ToLongFunction<Object> f = lambda(lookup, handle, ToLongFunction.class, "applyAsLong", long.class);
+            return (obj, row) -> row.longCell(f.applyAsLong(obj));
+        }
+        if (type == double.class){
+            ToDoubleFunction<Object> f = lambda(lookup, handle, ToDoubleFunction.class, "applyAsDouble", double.class);
+            return (obj, row) -> row.doubleCell(f.applyAsDouble(obj));
+        }
+        if (type == float.class){
+            // a float is widened to double and back without any loss
+            ToDoubleFunction<Object> f = lambda(lookup, handle, ToDoubleFunction.class, "applyAsDouble", double.class);
+            return (obj, row) -> row.floatCell((float) f.applyAsDouble(obj));
+        }
+        // references, as well as booleans and chars, which are boxed
+        Function<Object, Object> f = lambda(lookup, handle, Function.class, "apply", Object.class);
+        return (obj, row) -> row.cell(f.apply(obj));
+    }
+
+
+    /*
+     * Creates an instance of the given functional interface, whose single method
+     * takes an object and calls the given getter on it.
+     */
+    @SuppressWarnings("unchecked")
+    private static <F> F lambda(MethodHandles.Lookup lookup, MethodHandle getter,
+                                        Class<? super F> function, String method, Class<?> returnType){
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, method,
+                    MethodType.methodType(function),
+                    MethodType.methodType(returnType, Object.class),
+                    getter,
+                    MethodType.methodType(returnType, getter.type().parameterType(0)));
+            return (F) site.getTarget().invoke();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("cannot bind " + getter, e);
+        }
+    }
+
+
+    /*
+     * Returns the width of a column of the given type, that is the length of its longest
+     * value for integers, booleans and chars, and the default width of a column otherwise.
+     */
+    private static int typeWidth(Class<?> type){
+        if (type == int.class || type == Integer.class) return 11;      // -2147483648
+        if (type == long.class || type == Long.class) return 20;        // -9223372036854775808
+        if (type == short.class || type == Short.class) return 6;
+        if (type == byte.class || type == Byte.class) return 4;
+        if (type == boolean.class || type == Boolean.class) return 5;
+        if (type == char.class || type == Character.class) return 1;
+        return 12;
+    }
+
+
+    /*
+     * Returns the name of the property of a getter, that is 'total' for 'getTotal'
+     * and 'active' for 'isActive'. Other names are returned as they are.
+     */
+    private static String propertyName(String getter){
+        int prefix = 0;
+        if (getter.startsWith("get")) prefix = 3;
+        else if (getter.startsWith("is")) prefix = 2;
+        if (prefix == 0 || getter.length() == prefix || !Character.isUpperCase(getter.charAt(prefix)))
+            return getter;
+        return Character.toLowerCase(getter.charAt(prefix)) + getter.substring(prefix + 1);
+    }
+}
@@ -0,0 +1,319 @@
+package tabularprint;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * UTF-8 encoding for the sinks that write bytes.
+ * The box-drawing characters, which make up the borders and separators of a table,
+ * are encoded once, when the class is loaded, and then copied as they are.
+ * ASCII characters, that is most of the cells, are copied byte for byte.
+ */
+final class Utf8 {
+    
+    // the box-drawing block, from U+2500 up to U+257F
+    private static final char BOX_DRAWING_START = '\u2500';   // ─
+    private static final char BOX_DRAWING_END = '\u257F';     // ╿
+    
+    // the encoding of every box-drawing character, 3 bytes each
+    private static final byte[] BOX_DRAWING = new byte[3 * (BOX_DRAWING_END - BOX_DRAWING_START + 1)];
+    static {
+        for (char c = BOX_DRAWING_START; c <= BOX_DRAWING_END; c++){
+            byte[] bytes = Character.toString(c).getBytes(StandardCharsets.UTF_8);
+            System.arraycopy(bytes, 0, BOX_DRAWING, 3 * (c - BOX_DRAWING_START), 3);
+        }
+    }
+    
+    // the replacement of a malformed character, that is an unpaired surrogate
+    private static final byte REPLACEMENT = '?';
+    
+    // the size of the chunks that characters are copied in, before they are encoded
+    private static final int CHUNK_SIZE = 2048;
+    
+    
+    private Utf8(){}
+    
+    
+    /*
+     * Returns the number of bytes of the given text, followed by the given tail 
+     * which may be null, once encoded.
+     */
+    static long encodedLength(TextBuffer text, char[] tail){
+        Counter counter = new Counter();
+        try {
+            text.forEachChunk(0, text.length(), counter);
+        } catch (IOException e) {
+            // nothing is written anywhere
+            throw new AssertionError(e);
+        }
+        if (tail != null) counter.accept(tail, 0, tail.length);
+        return counter.afterHighSurrogate ? counter.length + 1 : counter.length;
+    }
+    
+    
+    /*
+     * Returns the number of bytes of a single character, once encoded, given whether
+     * it follows the first half of a surrogate pair.
+     */
+    private static int encodedLength(char c, boolean afterHighSurrogate){
+        if (c < 0x80)
+            return afterHighSurrogate ? 2 : 1;
+        if (c < 0x800)
+            return afterHighSurrogate ? 3 : 2;
+        if (Character.isHighSurrogate(c))
+            return afterHighSurrogate ? 1 : 0;
+        if (Character.isLowSurrogate(c))
+            return afterHighSurrogate ? 4 : 1;
+        return afterHighSurrogate ? 4 : 3;
+    }
+    
+    
+    /* *******************************
+         C O U N T E R   C L A S S
+       ******************************* */
+    /*
+     * Counts the bytes of text, once encoded, chunk by chunk.
+     */
+    private static final class Counter implements TextBuffer.ChunkConsumer{
+        private long length = 0;
+        private boolean afterHighSurrogate = false;
+        
+        @Override
+        public void accept(char[] chunk, int offset, int n){
+            for (int i = offset; i < offset + n; i++){
+                char c = chunk[i];
+                if (c < 0x80 && !afterHighSurrogate){
+                    length++;
+                    continue;
+                }
+                length += encodedLength(c, afterHighSurrogate);
+                afterHighSurrogate = Character.isHighSurrogate(c);
+            }
+        }
+    }
+    
+    
+    /*
+     * Copies the characters s[start, end) to the start of the given array.
+     */
+    private static void getChars(CharSequence s, int start, int end, char[] chars){
+        if (s instanceof String)
+            ((String) s).getChars(start, end, chars, 0);
+        else if (s instanceof StringBuilder)
+            ((StringBuilder) s).getChars(start, end, chars, 0);
+        else{
+            for (int i = start; i < end; i++)
+                chars[i - start] = s.charAt(i);
+        }
+    }
+    
+    
+    /* *******************************
+         E N C O D E R   C L A S S
+       ******************************* */
+    /*
+     * Encodes text into a staging array of bytes, which is drained once it is full.
+     * Surrogate pairs may be split between calls, so the first half of a pair is kept 
+     * until the second one arrives. Unpaired surrogates are replaced by '?', 
+     * just like String.getBytes() does.
+     */
+    abstract static class Encoder implements TextBuffer.ChunkConsumer{
+        private final byte[] stage;
+        private int length = 0;
+        private final char[] chars = new char[CHUNK_SIZE];
+        
+        // the first half of a surrogate pair, waiting for the second. 0 means none
+        private char highSurrogate = 0;
+        
+        Encoder(int stageSize){
+            // room for a chunk of characters, at 3 bytes each, and a replacement
+            this.stage = new byte[Math.max(stageSize, 3 * CHUNK_SIZE + 1)];
+        }
+        
+        
+        /*
+         * Does something with the bytes of the stage, which is then emptied.
+         */
+        abstract void drain(byte[] bytes, int length) throws IOException;
+        
+        
+        void encode(CharSequence s, int start, int end) throws IOException{
+            // the characters of a wrapped array are encoded straight from the array
+            if (s instanceof CharBuffer && ((CharBuffer) s).hasArray()){
+                CharBuffer buffer = (CharBuffer) s;
+                int offset = buffer.arrayOffset() + buffer.position();
+                encode(buffer.array(), offset + start, offset + end);
+                return;
+            }
+            
+            while (start < end){
+                int n = Math.min(CHUNK_SIZE, end - start);
+                getChars(s, start, start + n, chars);
+                encode(chars, 0, n);
+                start += n;
+            }
+        }
+        
+        
+        void encode(char[] src, int start, int end) throws IOException{
+            while (start < end){
+                int n = Math.min(CHUNK_SIZE, end - start);
+                if (stage.length - length < 3 * n + 1) drain();
+                
+                // the loop is kept tight for ASCII, which is copied as it is
+                byte[] dst = stage;
+                int pos = length;
+                for (int i = start; i < start + n; i++){
+                    char c = src[i];
+                    if (c < 0x80 && highSurrogate == 0) dst[pos++] = (byte) c;
+                    else pos = encode(c, dst, pos);
+                }
+                length = pos;
+                start += n;
+            }
+        }
+        
+        
+        // encodes the chunks of a TextBuffer
+        @Override
+        public void accept(char[] chunk, int offset, int n) throws IOException{
+            encode(chunk, offset, offset + n);
+        }
+        
+        
+        void encode(char c) throws IOException{
+            if (stage.length - length < 4) drain();
+            length = encode(c, stage, length);
+        }
+        
+        
+        /*
+         * Replaces a surrogate left without its second half, and drains the stage.
+         */
+        void finish() throws IOException{
+            if (highSurrogate != 0){
+                highSurrogate = 0;
+                if (stage.length == length) drain();
+                stage[length++] = REPLACEMENT;
+            }
+            drain();
+        }
+        
+        
+        /*
+         * Drains the stage, even if it is not full.
+         */
+        void drain() throws IOException{
+            if (length == 0) return;
+            drain(stage, length);
+            length = 0;
+        }
+        
+        
+        // the number of bytes in the stage
+        int length(){
+            return length;
+        }
+        
+        
+        private int encode(char c, byte[] dst, int pos){
+            if (highSurrogate != 0){
+                char high = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(c))
+                    return encodeSupplementary(Character.toCodePoint(high, c), dst, pos);
+                dst[pos++] = REPLACEMENT;
+            }
+            
+            if (c < 0x80){
+                dst[pos] = (byte) c;
+                return pos + 1;
+            }
+            if (c < 0x800){
+                dst[pos] = (byte) (0xC0 | (c >> 6));
+                dst[pos + 1] = (byte) (0x80 | (c & 0x3F));
+                return pos + 2;
+            }
+            if (c >= BOX_DRAWING_START && c <= BOX_DRAWING_END){
+                int i = 3 * (c - BOX_DRAWING_START);
+                dst[pos] = BOX_DRAWING[i];
+                dst[pos + 1] = BOX_DRAWING[i + 1];
+                dst[pos + 2] = BOX_DRAWING[i + 2];
+                return pos + 3;
+            }
+            if (Character.isHighSurrogate(c)){
+                highSurrogate = c;
+                return pos;
+            }
+            if (Character.isLowSurrogate(c)){
+                dst[pos] = REPLACEMENT;
+                return pos + 1;
+            }
+            dst[pos] = (byte) (0xE0 | (c >> 12));
+            dst[pos + 1] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            dst[pos + 2] = (byte) (0x80 | (c & 0x3F));
+            return pos + 3;
+        }
+        
+        
+        private static int encodeSupplementary(int codePoint, byte[] dst, int pos){
+            dst[pos] = (byte) (0xF0 | (codePoint >> 18));
+            dst[pos + 1] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            dst[pos + 2] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            dst[pos + 3] = (byte) (0x80 | (codePoint & 0x3F));
+            return pos + 4;
+        }
+    }
+    
+    
+    /* *****************************************
+         S T R E A M   O U T P U T   C L A S S
+       ***************************************** */
+    /*
+     * The sink of TabularPrint(OutputStream). The text is encoded straight into bytes, 
+     * which are written to the stream once the stage is full.
+     */
+    static final class StreamOutput extends Encoder implements Appendable, Flushable{
+        private static final int STAGE_SIZE = 16 * 1024;
+        private final OutputStream out;
+        
+        StreamOutput(OutputStream out){
+            super(STAGE_SIZE);
+            this.out = out;
+        }
+        
+        @Override
+        void drain(byte[] bytes, int length) throws IOException{
+            out.write(bytes, 0, length);
+        }
+        
+        @Override
+        public Appendable append(CharSequence csq) throws IOException{
+            if (csq == null) csq = "null";
+            encode(csq, 0, csq.length());
+            return this;
+        }
+        
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException{
+            if (csq == null) csq = "null";
+            encode(csq, start, end);
+            return this;
+        }
+        
+        @Override
+        public Appendable append(char c) throws IOException{
+            encode(c);
+            return this;
+        }
+        
+        @Override
+        public void flush() throws IOException{
+            drain();
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentTabularPrintTest {
+
+    private static final int THREADS = 4;
+    private static final int ROWS_PER_THREAD = 2000;
+
+    private static TabularPrint table(boolean decorated){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(6, "Id").horizontalRight();
+        tp.addColumnSeparator();
+        tp.addColumn(10, "Name");
+        tp.addColumnSeparator();
+        tp.addColumn(8, "Value").decimals(2);
+        tp.showHeaders(true);
+        tp.showBorder(decorated);
+        tp.showRowSeparators(decorated);
+        return tp;
+    }
+
+
+    @Test
+    public void singleThreadMatchesPlainTable(){
+        TabularPrint plain = table(true);
+        ConcurrentTabularPrint concurrent = new ConcurrentTabularPrint(table(true));
+        for (int i = 0; i < 50; i++){
+            Object[] row = { i, "name of row " + i, i * 1.25 };
+            plain.printRow(row);
+            concurrent.printRow(row);
+        }
+        assertEquals(plain.getString(), concurrent.getString());
+    }
+
+
+    @Test
+    public void everyRowOfEveryThreadIsPrinted() throws Exception{
+        for (int order : new int[]{ ConcurrentTabularPrint.INSERTION_ORDER,
+                                    ConcurrentTabularPrint.ARRIVAL_ORDER }){
+            ConcurrentTabularPrint concurrent = new ConcurrentTabularPrint(table(false), order);
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++){
+                int first = t * ROWS_PER_THREAD;
+                futures.add(pool.submit(() -> {
+                    for (int i = first; i < first + ROWS_PER_THREAD; i++)
+                        concurrent.printRow(i, "row", 0.5);
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+            pool.shutdown();
+
+            String[] lines = concurrent.getString().split("\n");
+            // the headers and the line below them come first
+            assertEquals(THREADS * ROWS_PER_THREAD + 2, lines.length);
+            Set<Integer> ids = new HashSet<>();
+            for (int i = 2; i < lines.length; i++)
+                ids.add(Integer.parseInt(lines[i].substring(0, 6).trim()));
+            assertEquals(THREADS * ROWS_PER_THREAD, ids.size());
+        }
+    }
+
+
+    @Test
+    public void getStringWhilePrintingReturnsTheFirstRows() throws Exception{
+        ConcurrentTabularPrint concurrent = new ConcurrentTabularPrint(table(false));
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++){
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < ROWS_PER_THREAD; i++)
+                    concurrent.printRow(i, "row", 0.5);
+            }));
+        }
+        List<String> partial = new ArrayList<>();
+        while (!futures.stream().allMatch(Future::isDone))
+            partial.add(concurrent.getString());
+        for (Future<?> future : futures) future.get();
+        pool.shutdown();
+
+        String complete = concurrent.getString();
+        for (String text : partial)
+            assertTrue(complete.startsWith(text), "a partial table has gaps");
+    }
+
+
+    @Test
+    public void rowsAfterAFailedRowArePrinted(){
+        Object broken = new Object(){
+            @Override
+            public String toString(){ throw new IllegalStateException("broken cell"); }
+        };
+        for (int order : new int[]{ ConcurrentTabularPrint.INSERTION_ORDER,
+                                    ConcurrentTabularPrint.ARRIVAL_ORDER }){
+            TabularPrint plain = table(true);
+            ConcurrentTabularPrint concurrent = new ConcurrentTabularPrint(table(true), order);
+            for (int i = 0; i < 20; i++){
+                if (i % 7 == 3)
+                    assertThrows(IllegalStateException.class,
+                                 () -> concurrent.printRow(-1, "failed row", broken));
+                plain.printRow(i, "row " + i, i * 0.5);
+                concurrent.printRow(i, "row " + i, i * 0.5);
+            }
+            assertEquals(plain.getString(), concurrent.getString());
+        }
+    }
+
+
+    @Test
+    public void tableThatPrintedRowsIsRejected(){
+        TabularPrint printed = table(false);
+        printed.printRow(1, "row", 0.5);
+        assertThrows(IllegalStateException.class, () -> new ConcurrentTabularPrint(printed));
+        assertThrows(IllegalStateException.class, () -> printed.collector());
+        assertThrows(IllegalStateException.class, () -> new TabularPrint(new StringBuilder()).asProcessor());
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentTabularPrint(table(false), 0));
+    }
+
+
+    @Test
+    public void tableIsNotKeptAliveByPoolThreads() throws Exception{
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            WeakReference<ConcurrentTabularPrint> ref = printOn(pool);
+            // the pool thread is still alive, and it must not hold the table
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (ref.get() != null && System.nanoTime() < deadline){
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertNull(ref.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+
+    // prints a row on the given pool, and drops the table
+    private static WeakReference<ConcurrentTabularPrint> printOn(ExecutorService pool) throws Exception{
+        ConcurrentTabularPrint concurrent = new ConcurrentTabularPrint(table(false));
+        pool.submit(() -> concurrent.printRow(1, "row", 0.5)).get();
+        return new WeakReference<>(concurrent);
+    }
+}
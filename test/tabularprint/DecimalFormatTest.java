@@ -0,0 +1,106 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class DecimalFormatTest {
+
+    // the rounding of the original implementation: half up, then String.format
+    private static String expected(double value, int decimals){
+        double shift = Math.pow(10.0, decimals);
+        double rounded = Math.floor(value * shift + 0.5) / shift;
+        return String.format(Locale.ROOT, "%." + decimals + "f", rounded);
+    }
+
+    // prints every value in a column with the given decimals, and returns the cells
+    private static String[] format(List<Double> values, int decimals){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(400).decimals(decimals).decimalSeparator('.');
+        for (double value : values)
+            tp.printRow(value);
+        String[] cells = tp.getString().split("\n");
+        for (int i = 0; i < cells.length; i++)
+            cells[i] = cells[i].trim();
+        return cells;
+    }
+
+    private static void assertFormattedLikeString(List<Double> values){
+        for (int decimals : new int[]{ 0, 1, 2, 3, 6, 9, 15, 18, 19, 25 }){
+            String[] cells = format(values, decimals);
+            for (int i = 0; i < values.size(); i++)
+                assertEquals(expected(values.get(i), decimals), cells[i],
+                             values.get(i) + " with " + decimals + " decimals");
+        }
+    }
+
+
+    @Test
+    public void halvesAreRoundedUp(){
+        List<Double> values = new ArrayList<>();
+        for (int i = -200; i <= 200; i++){
+            values.add(i + 0.5);
+            values.add(i / 8.0);           // exact halves at 1, 2 and 3 decimals
+            values.add(i * 0.005);
+        }
+        values.add(0.0);
+        values.add(-0.0);
+        values.add(-0.004);
+        values.add(-0.006);
+        assertFormattedLikeString(values);
+    }
+
+
+    @Test
+    public void randomValuesOfEveryMagnitude(){
+        Random random = new Random(42);
+        List<Double> values = new ArrayList<>();
+        for (int exponent = -12; exponent <= 22; exponent++){
+            for (int k = 0; k < 40; k++){
+                double value = random.nextDouble() * Math.pow(10, exponent);
+                values.add(random.nextBoolean() ? value : -value);
+            }
+        }
+        assertFormattedLikeString(values);
+    }
+
+
+    @Test
+    public void largeValuesAndSpecialValues(){
+        List<Double> values = List.of(1e15, 1e15 - 0.5, 999_999_999_999_999.0, -1e16, 9.223372036854776E18,
+                                      1e20, -1e300, Double.MAX_VALUE, -Double.MIN_VALUE,
+                                      Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+        assertFormattedLikeString(values);
+    }
+
+
+    @Test
+    public void floatsAreRoundedAsDoubles(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(50).decimals(3).decimalSeparator('.');
+        float[] floats = { 0.1f, 2.675f, -1.0005f, 3.4028235e38f };
+        for (float f : floats)
+            tp.printRow(f);
+        tp.row().floatCell(floats[1]).end();
+
+        StringBuilder expected = new StringBuilder();
+        for (float f : floats)
+            expected.append(String.format("%-50s\n", expected(f, 3)));
+        expected.append(String.format("%-50s\n", expected(floats[1], 3)));
+        assertEquals(expected.toString(), tp.getString());
+    }
+
+
+    @Test
+    public void decimalSeparatorIsUsedForEveryMagnitude(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(30).decimals(2).decimalSeparator(',');
+        tp.printRow(1.5);
+        tp.printRow(-1e20);
+        assertEquals(String.format("%-30s\n%-30s\n", "1,50", "-100000000000000000000,00"), tp.getString());
+    }
+}
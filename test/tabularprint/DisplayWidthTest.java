@@ -0,0 +1,81 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class DisplayWidthTest {
+
+    @Test
+    public void widthOfCodePoints(){
+        assertEquals(1, DisplayWidth.of('a'));
+        assertEquals(1, DisplayWidth.of('é'));
+        assertEquals(2, DisplayWidth.of('中'));
+        assertEquals(2, DisplayWidth.of('한'));
+        assertEquals(2, DisplayWidth.of(0x1F600));     // grinning face
+        assertEquals(0, DisplayWidth.of(0x0301));      // combining acute accent
+        assertEquals(0, DisplayWidth.of(0x200B));      // zero width space
+        assertEquals(0, DisplayWidth.of(0x1161));      // Hangul medial vowel
+        assertEquals(1, DisplayWidth.of(0x00AD));      // soft hyphen
+    }
+
+
+    @Test
+    public void widthOfText(){
+        assertEquals(5, DisplayWidth.of("plain", 0, 5));
+        assertEquals(4, DisplayWidth.of("中文", 0, 2));
+        assertEquals(3, DisplayWidth.of("a😀", 0, 3));
+        assertEquals(2, DisplayWidth.of("e\u0301e\u0301", 0, 4));
+        // a surrogate pair cut by the end is measured as a lone surrogate
+        assertEquals(2, DisplayWidth.of("a😀", 0, 2));
+    }
+
+
+    @Test
+    public void cellsArePaddedByDisplayWidth(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumnSeparator("|");
+        tp.addColumn(6);
+        tp.addColumnSeparator("|");
+        tp.addColumn(6).horizontalRight();
+        tp.addColumnSeparator("|");
+        tp.printRow("abc", "abc");
+        tp.printRow("中文", "中文");
+        tp.printRow("😀ab", "😀ab");
+        tp.printRow("e\u0301e\u0301", "e\u0301e\u0301");
+        assertEquals("|abc   |   abc|\n"
+                   + "|中文  |  中文|\n"
+                   + "|😀ab  |  😀ab|\n"
+                   + "|e\u0301e\u0301    |    e\u0301e\u0301|\n", tp.getString());
+    }
+
+
+    @Test
+    public void titleAndHeadersUseDisplayWidth(){
+        TabularPrint tp = new TabularPrint();
+        tp.setTitle("中文");
+        tp.addColumn(4, "한국").horizontalCenter();
+        tp.showHeaders(true);
+        tp.showHeadersSeparator(false);
+        tp.printRow("ab");
+        String[] lines = tp.getString().split("\n");
+        assertEquals("中文", lines[0]);
+        assertEquals("────", lines[1]);
+        assertEquals("한국", lines[2]);
+        assertEquals(" ab ", lines[3]);
+    }
+
+
+    @Test
+    public void wrappingKeepsWideCharactersAndMarksWhole(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(3);
+        tp.addColumnSeparator("|");
+        tp.printRow("😀😀");
+        tp.printRow("中文字");
+        tp.printRow("e\u0301e\u0301e\u0301e\u0301");
+        assertEquals("😀 |\n😀 |\n"
+                   + "中 |\n文 |\n字 |\n"
+                   + "e\u0301e\u0301e\u0301|\ne\u0301  |\n", tp.getString());
+    }
+}
@@ -0,0 +1,92 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileSinkTest {
+
+    // the smallest buffer, so that the text spans many regions
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private static void printRows(TabularPrint tp){
+        for (int i = 0; i < 2000; i++){
+            // ASCII, two and three byte characters and surrogate pairs, so that
+            // characters of every length cross the end of a region
+            String name = switch (i % 4) {
+                case 0 -> "plain " + i;
+                case 1 -> "café über";
+                case 2 -> "中文 " + i;
+                default -> "😀 smile";
+            };
+            tp.printRow(i, name, i / 7.0);
+        }
+    }
+
+
+    @Test
+    public void mappedSinkWritesTheBytesOfTheTable() throws IOException{
+        assertSameBytes(FileSink.MAPPED);
+    }
+
+
+    @Test
+    public void directSinkWritesTheBytesOfTheTable() throws IOException{
+        assertSameBytes(FileSink.DIRECT);
+    }
+
+
+    private void assertSameBytes(int mode) throws IOException{
+        TabularPrint plain = Tables.orders(null, false);
+        printRows(plain);
+        byte[] expected = plain.getString().getBytes(StandardCharsets.UTF_8);
+
+        Path file = dir.resolve("table-" + mode + ".txt");
+        long size;
+        try (FileSink sink = new FileSink(file, mode, BUFFER_SIZE)){
+            TabularPrint tp = Tables.orders(sink, false);
+            printRows(tp);
+            tp.finish();
+            size = sink.size();
+        }
+        // the file is cut at the end of the text
+        assertArrayEquals(expected, Files.readAllBytes(file));
+        assertEquals(expected.length, size);
+    }
+
+
+    @Test
+    public void emptySinkLeavesAnEmptyFile() throws IOException{
+        Path file = dir.resolve("empty.txt");
+        new FileSink(file, FileSink.MAPPED, BUFFER_SIZE).close();
+        assertEquals(0, Files.size(file));
+    }
+
+
+    @Test
+    public void closedSinkRejectsText() throws IOException{
+        FileSink sink = new FileSink(dir.resolve("closed.txt"), FileSink.DIRECT, BUFFER_SIZE);
+        sink.append("text");
+        sink.close();
+        // a second close has no effect
+        sink.close();
+        assertThrows(IOException.class, () -> sink.append("more"));
+    }
+
+
+    @Test
+    public void invalidModeIsRejected(){
+        assertThrows(IllegalArgumentException.class,
+                () -> new FileSink(dir.resolve("invalid.txt"), 3, BUFFER_SIZE));
+    }
+}
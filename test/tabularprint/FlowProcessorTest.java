@@ -0,0 +1,184 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import org.junit.jupiter.api.Test;
+
+public class FlowProcessorTest {
+
+    /*
+     * Publishes the given number of rows on the thread that requests them,
+     * and then completes, or fails with the given error.
+     */
+    private static final class RowPublisher implements Flow.Publisher<Object[]>{
+        private final int count;
+        private final RuntimeException failure;
+        private Flow.Subscriber<? super Object[]> subscriber;
+        private long demand = 0;
+        private int delivered = 0;
+        private boolean isDelivering = false;
+        private boolean isCancelled = false;
+
+        RowPublisher(int count, RuntimeException failure){
+            this.count = count;
+            this.failure = failure;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Object[]> subscriber){
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(new Flow.Subscription(){
+                @Override
+                public void request(long n){
+                    demand += n;
+                    deliver();
+                }
+
+                @Override
+                public void cancel(){
+                    isCancelled = true;
+                }
+            });
+        }
+
+        private void deliver(){
+            // a request made from onNext() is served by the loop below
+            if (isDelivering) return;
+            isDelivering = true;
+            while (demand > 0 && delivered < count && !isCancelled){
+                demand--;
+                subscriber.onNext(row(delivered++));
+            }
+            isDelivering = false;
+            if (delivered == count && !isCancelled){
+                isCancelled = true;
+                if (failure != null) subscriber.onError(failure);
+                else subscriber.onComplete();
+            }
+        }
+    }
+
+    private static final class TextSubscriber implements Flow.Subscriber<CharSequence>{
+        private final List<String> items = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private boolean isComplete = false;
+        private Throwable error = null;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription){ this.subscription = subscription; }
+
+        @Override
+        public void onNext(CharSequence item){ items.add(item.toString()); }
+
+        @Override
+        public void onError(Throwable throwable){ error = throwable; }
+
+        @Override
+        public void onComplete(){ isComplete = true; }
+    }
+
+    private static Object[] row(int i){
+        return new Object[]{ i, "customer " + i, i * 1.5 };
+    }
+
+    private static String printed(int count){
+        TabularPrint tp = Tables.orders(null, false);
+        for (int i = 0; i < count; i++)
+            tp.printRow(row(i));
+        return tp.getString();
+    }
+
+    // puts a processor between the given publisher and a new subscriber
+    private static TextSubscriber subscribe(RowPublisher publisher){
+        Flow.Processor<Object[], CharSequence> processor = Tables.orders(null, false).asProcessor();
+        TextSubscriber subscriber = new TextSubscriber();
+        processor.subscribe(subscriber);
+        publisher.subscribe(processor);
+        return subscriber;
+    }
+
+
+    @Test
+    public void publishedItemsMakeTheTable(){
+        TextSubscriber subscriber = subscribe(new RowPublisher(200, null));
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.isComplete);
+        // the head, every row and the bottom border
+        assertEquals(202, subscriber.items.size());
+        assertEquals(printed(200), String.join("", subscriber.items));
+    }
+
+
+    @Test
+    public void rowsAreRequestedOnlyAsFarAsItemsAre(){
+        RowPublisher publisher = new RowPublisher(1000, null);
+        TextSubscriber subscriber = subscribe(publisher);
+        assertEquals(0, publisher.delivered);
+
+        // the first item is the head, which needs no rows
+        subscriber.subscription.request(1);
+        assertEquals(1, subscriber.items.size());
+        assertEquals(0, publisher.delivered);
+
+        for (int n = 1; n <= 50; n++){
+            subscriber.subscription.request(2);
+            assertEquals(1 + 2 * n, subscriber.items.size());
+            assertEquals(2 * n, publisher.delivered);
+        }
+        assertFalse(subscriber.isComplete);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.isComplete);
+        assertEquals(printed(1000), String.join("", subscriber.items));
+    }
+
+
+    @Test
+    public void upstreamErrorReachesTheSubscriber(){
+        RuntimeException failure = new RuntimeException("upstream failed");
+        TextSubscriber subscriber = subscribe(new RowPublisher(5, failure));
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertSame(failure, subscriber.error);
+        assertFalse(subscriber.isComplete);
+    }
+
+
+    @Test
+    public void nonPositiveRequestCancelsUpstream(){
+        RowPublisher publisher = new RowPublisher(1000, null);
+        TextSubscriber subscriber = subscribe(publisher);
+        subscriber.subscription.request(3);
+        subscriber.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+        assertTrue(publisher.isCancelled);
+    }
+
+
+    @Test
+    public void cancelStopsUpstream(){
+        RowPublisher publisher = new RowPublisher(1000, null);
+        TextSubscriber subscriber = subscribe(publisher);
+        subscriber.subscription.request(10);
+        subscriber.subscription.cancel();
+        assertTrue(publisher.isCancelled);
+        assertEquals(10, subscriber.items.size());
+        assertFalse(subscriber.isComplete);
+    }
+
+
+    @Test
+    public void secondSubscriberIsRejected(){
+        Flow.Processor<Object[], CharSequence> processor = Tables.orders(null, false).asProcessor();
+        processor.subscribe(new TextSubscriber());
+        TextSubscriber second = new TextSubscriber();
+        processor.subscribe(second);
+        assertInstanceOf(IllegalStateException.class, second.error);
+    }
+}
@@ -0,0 +1,71 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class GetStringTest {
+
+    private static void printRows(TabularPrint tp, int first, int count){
+        for (int i = first; i < first + count; i++)
+            tp.printRow(i, "customer " + i, i * 1.25);
+    }
+
+
+    @Test
+    public void getStringDoesNotChangeTheTable(){
+        TabularPrint plain = Tables.orders(null, false);
+        printRows(plain, 0, 20);
+
+        TabularPrint polled = Tables.orders(null, false);
+        for (int i = 0; i < 20; i += 5){
+            printRows(polled, i, 5);
+            String text = polled.getString();
+            // nothing was printed in between, so the same String is returned
+            assertSame(text, polled.getString());
+        }
+        assertEquals(plain.getString(), polled.getString());
+    }
+
+
+    @Test
+    public void newTextAddsUpToTheTable(){
+        TabularPrint tp = Tables.orders(null, false);
+        StringBuilder polled = new StringBuilder();
+        for (int i = 0; i < 50; i += 10){
+            printRows(tp, i, 10);
+            String newText = tp.getNewText();
+            assertTrue(newText.contains("customer " + (i + 9)), newText);
+            polled.append(newText);
+        }
+        assertEquals("", tp.getNewText());
+
+        // the table is followed only by its bottom border
+        String table = tp.getString();
+        assertTrue(table.startsWith(polled.toString()));
+        String rest = table.substring(polled.length());
+        assertEquals(rest.length() - 1, rest.indexOf('\n'), rest);
+    }
+
+
+    @Test
+    public void newTextFixesAutoWidths(){
+        // with no sample, the rows are held until the text is retrieved
+        TabularPrint tp = Tables.orders(null, true);
+        printRows(tp, 0, 10);
+        String newText = tp.getNewText();
+        assertTrue(newText.contains("customer 9"), newText);
+
+        // the widths are fixed, so the longer names of the later rows are wrapped
+        printRows(tp, 10, 10);
+        tp.printRow(20, "a customer with a much longer name", 0.0);
+        String table = tp.getString();
+        String rest = tp.getNewText();
+        assertTrue(table.startsWith(newText + rest));
+        int width = newText.indexOf('\n');
+        for (String line : (newText + rest).split("\n"))
+            assertEquals(width, line.length(), line);
+    }
+}
@@ -0,0 +1,104 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class MaxLinesTest {
+
+    @Test
+    public void linesBeyondTheMaximumAreCut(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumnSeparator("|");
+        tp.addColumn(5).maxLines(2);
+        tp.addColumnSeparator("|");
+        tp.printRow("ab\ncd\nef");
+        tp.printRow("ab\ncd");
+        assertEquals("|ab   |\n|cd…  |\n"
+                   + "|ab   |\n|cd   |\n", tp.getString());
+    }
+
+
+    @Test
+    public void wideCharactersAreCutByDisplayWidth(){
+        // every character takes two columns, and the ellipsis takes one
+        TabularPrint tp = new TabularPrint();
+        tp.addColumnSeparator("|");
+        tp.addColumn(5).maxLines(2);
+        tp.addColumnSeparator("|");
+        tp.printRow("中文字符テスト");
+        assertEquals("|中文 |\n|字符…|\n", tp.getString());
+    }
+
+
+    @Test
+    public void combiningMarksStayWithTheirCharacter(){
+        // every 'e' is followed by a combining acute accent, which takes no columns
+        TabularPrint tp = new TabularPrint();
+        tp.addColumnSeparator("|");
+        tp.addColumn(4).maxLines(1);
+        tp.addColumnSeparator("|");
+        tp.printRow("e\u0301".repeat(6));
+        assertEquals("|" + "e\u0301".repeat(3) + "…|\n", tp.getString());
+    }
+
+
+    @Test
+    public void carriageReturnsAfterCombiningMarksAreLineBreaks(){
+        // the first line has many more chars than columns, so the carriage return
+        // comes after more chars than the visible lines could hold without marks
+        TabularPrint tp = new TabularPrint();
+        tp.addColumnSeparator("|");
+        tp.addColumn(2).maxLines(2);
+        tp.addColumnSeparator("|");
+        String marked = "e" + "\u0301".repeat(5);
+        tp.printRow(marked + marked + "\r\nab");
+        tp.row().text(marked + marked + "\rab").end();
+        assertEquals("|" + marked + marked + "|\n|ab|\n"
+                   + "|" + marked + marked + "|\n|ab|\n", tp.getString());
+    }
+
+
+    @Test
+    public void carriageReturnAfterTheLastLineJoinsItsLineBreak(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumnSeparator("|");
+        tp.addColumn(2).maxLines(1);
+        tp.addColumnSeparator("|");
+        tp.printRow("ab\n\r");
+        assertEquals("|ab|\n", tp.getString());
+    }
+
+
+    @Test
+    public void customEllipsis(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(6).truncate().ellipsis("...");
+        tp.addColumn(6).truncate().ellipsis("");
+        tp.printRow("truncated text", "truncated text");
+        assertEquals("tru...trunca\n", tp.getString());
+    }
+
+
+    @Test
+    public void autoWidthReadsOnlyTheVisibleLines(){
+        // the second line is never shown, so it does not widen the column,
+        // but the first one is followed by the ellipsis
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn().autoWidth().truncate();
+        tp.addColumnSeparator("|");
+        tp.printRow("ab\n" + "x".repeat(1_000_000));
+        tp.printRow("abc");
+        assertEquals("ab…|\nabc|\n", tp.getString());
+    }
+
+
+    @Test
+    public void invalidArgumentsAreRejected(){
+        TabularPrint.Column col = new TabularPrint().addColumn();
+        assertThrows(IllegalArgumentException.class, () -> col.maxLines(0));
+        assertThrows(IllegalArgumentException.class, () -> col.ellipsis(null));
+        assertThrows(IllegalArgumentException.class, () -> col.ellipsis("a\nb"));
+    }
+}
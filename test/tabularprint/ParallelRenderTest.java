@@ -0,0 +1,71 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+public class ParallelRenderTest {
+
+    // more than one thread, or the rows are printed one by one
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdown(){
+        POOL.shutdown();
+    }
+
+    private static List<Object> rows(int count){
+        List<Object> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++){
+            if (i % 5 == 0)
+                rows.add(List.of(i, "customer\n" + i, -i * 0.125));
+            else
+                rows.add(new Object[]{ i, "customer " + i, i * 1.005 });
+        }
+        return rows;
+    }
+
+
+    @Test
+    public void parallelMatchesSequential(){
+        for (int count : new int[]{ 10, 600, 5000 }){
+            TabularPrint sequential = Tables.orders(null, false);
+            sequential.printRows(rows(count));
+
+            TabularPrint parallel = Tables.orders(null, false);
+            parallel.printRowsParallel(rows(count), POOL);
+            assertEquals(sequential.getString(), parallel.getString(), count + " rows");
+        }
+    }
+
+
+    @Test
+    public void linkedListMatchesSequential(){
+        TabularPrint sequential = Tables.orders(null, false);
+        sequential.printRows(rows(5000));
+
+        TabularPrint parallel = Tables.orders(null, false);
+        parallel.printRowsParallel(new LinkedList<>(rows(5000)), POOL);
+        assertEquals(sequential.getString(), parallel.getString());
+    }
+
+
+    @Test
+    public void parallelRowsFollowEarlierRows(){
+        TabularPrint sequential = Tables.orders(null, false);
+        sequential.printRow(-1, "first", 0.5);
+        sequential.printRows(rows(2000));
+
+        StringBuilder out = new StringBuilder();
+        TabularPrint parallel = Tables.orders(out, false);
+        parallel.printRow(-1, "first", 0.5);
+        parallel.printRowsParallel(rows(2000), POOL);
+        parallel.finish();
+        assertEquals(sequential.getString(), out.toString());
+    }
+}
@@ -0,0 +1,101 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+public class RenderStatsTest {
+
+    @Test
+    public void rowsAreCounted(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(5);
+        tp.addColumnSeparator("|");
+        RenderStats stats = tp.enableStats();
+        assertSame(stats, tp.getStats());
+
+        tp.printRow("ab");
+        tp.printRow("abcdefgh");    // wrapped on two lines
+        tp.printRow("😀");          // one character, two chars
+        String text = tp.getString();
+        tp.getString();
+
+        assertEquals(3, stats.getRows());
+        assertEquals(4, stats.getLines());
+        assertEquals(1, stats.getWrappedCells());
+        assertEquals(text.length(), stats.getChars());
+        assertEquals(2, stats.getGetStringCalls());
+        assertTrue(stats.getBufferCapacity() >= text.length());
+    }
+
+
+    @Test
+    public void rowSeparatorsAreCountedAsChars(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(5);
+        tp.showRowSeparators(true);
+        RenderStats stats = tp.enableStats();
+        tp.printRow("a");
+        tp.printRow("b");
+
+        // the separator is not a line of a row, but its text is rendered with the row
+        assertEquals(2, stats.getLines());
+        assertEquals(tp.getString().length(), stats.getChars());
+    }
+
+
+    @Test
+    public void resetClearsTheCounters(){
+        TabularPrint tp = Tables.orders(null, false);
+        RenderStats stats = tp.enableStats();
+        for (int i = 0; i < 10; i++)
+            tp.printRow(i, "customer " + i, i * 0.5);
+        tp.getString();
+
+        stats.reset();
+        assertEquals(0, stats.getRows());
+        assertEquals(0, stats.getLines());
+        assertEquals(0, stats.getChars());
+        assertEquals(0, stats.getFormatNanos() + stats.getLayoutNanos() + stats.getRenderNanos());
+        assertEquals(0, stats.getGetStringCalls());
+
+        tp.printRow(10, "customer 10", 5.0);
+        assertEquals(1, stats.getRows());
+    }
+
+
+    @Test
+    public void registeredCountersAreMBeans() throws Exception{
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        TabularPrint tp = Tables.orders(null, false);
+        RenderStats stats = tp.enableStats();
+        tp.printRow(1, "customer 1", 0.5);
+
+        ObjectName first = stats.register("render-stats-test");
+        try {
+            assertEquals(1L, server.getAttribute(first, "Rows"));
+
+            // a second table cannot take the same name
+            RenderStats other = new TabularPrint().enableStats();
+            assertThrows(IllegalArgumentException.class, () -> other.register("render-stats-test"));
+
+            // registered again under the new name only
+            ObjectName second = stats.register("render-stats-test-renamed");
+            assertFalse(server.isRegistered(first));
+            assertTrue(server.isRegistered(second));
+
+            stats.unregister();
+            assertFalse(server.isRegistered(second));
+            stats.unregister();
+        } finally {
+            stats.unregister();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Writer;
+import org.junit.jupiter.api.Test;
+
+public class ReuseTest {
+
+    private static void printRows(TabularPrint tp, int first, int count, String customer){
+        for (int i = first; i < first + count; i++)
+            tp.printRow(i, customer + " " + i, i * 2.5);
+    }
+
+
+    @Test
+    public void resetTablePrintsLikeANewOne(){
+        TabularPrint reused = Tables.orders(null, true);
+        for (int round = 0; round < 3; round++){
+            reused.reset();
+            printRows(reused, round * 10, 5 + round, "customer of round " + round);
+
+            TabularPrint fresh = Tables.orders(null, true);
+            printRows(fresh, round * 10, 5 + round, "customer of round " + round);
+            assertEquals(fresh.getString(), reused.getString());
+        }
+    }
+
+
+    @Test
+    public void clearRowsKeepsTheAutoWidths(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn().autoWidth();
+        tp.addColumnSeparator("|");
+        tp.printRow("abcdef");
+        assertEquals("abcdef|\n", tp.getString());
+
+        tp.clearRows();
+        tp.printRow("ab");
+        assertEquals("ab    |\n", tp.getString());
+
+        tp.reset();
+        tp.printRow("ab");
+        assertEquals("ab|\n", tp.getString());
+    }
+
+
+    @Test
+    public void snapshotSurvivesClearRows(){
+        TabularPrint tp = Tables.orders(null, true);
+        printRows(tp, 0, 20, "first");
+        CharSequence snapshot = tp.snapshot();
+        String expected = tp.getString();
+
+        tp.clearRows();
+        printRows(tp, 100, 20, "second");
+        assertEquals(expected, snapshot.toString());
+    }
+
+
+    @Test
+    public void streamingTableMustBeFinishedBeforeClearRows() throws Exception{
+        StringBuilder out = new StringBuilder();
+        TabularPrint tp = Tables.orders(out, true);
+        printRows(tp, 0, 3, "first");
+        assertThrows(IllegalStateException.class, tp::clearRows);
+
+        tp.finish();
+        String first = out.toString();
+        tp.clearRows();
+        printRows(tp, 0, 3, "first");
+        tp.finish();
+        assertEquals(first + first, out.toString());
+    }
+
+
+    @Test
+    public void expectedRowsOfAStreamingTableStayWithinTheFlushThreshold(){
+        Writer out = Writer.nullWriter();
+        TabularPrint tp = new TabularPrint(out, TabularPrint.DEFAULT_FLUSH_THRESHOLD);
+        tp.addColumn(40, "Name");
+        tp.addColumn(40, "Value");
+        RenderStats stats = tp.enableStats();
+
+        tp.setExpectedRows(2_000_000);
+        long bound = 2L * TabularPrint.DEFAULT_FLUSH_THRESHOLD;
+        assertTrue(stats.getBufferCapacity() <= bound, "capacity " + stats.getBufferCapacity());
+
+        for (int i = 0; i < 10_000; i++)
+            tp.printRow("name " + i, "value " + i);
+        tp.finish();
+        tp.clearRows();
+        assertTrue(stats.getBufferCapacity() <= bound, "capacity " + stats.getBufferCapacity());
+    }
+
+
+    @Test
+    public void expectedRowsAllocateTheTextOfATableInMemory(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(40, "Name");
+        RenderStats stats = tp.enableStats();
+        tp.setExpectedRows(10_000);
+        assertTrue(stats.getBufferCapacity() >= 10_000L * 41, "capacity " + stats.getBufferCapacity());
+    }
+}
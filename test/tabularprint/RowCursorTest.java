@@ -0,0 +1,97 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class RowCursorTest {
+
+    @Test
+    public void cursorPrintsLikePrintRow(){
+        TabularPrint plain = Tables.orders(null, false);
+        TabularPrint cursor = Tables.orders(null, false);
+        for (int i = 0; i < 100; i++){
+            plain.printRow(i, "customer\n" + i, i * 1.005);
+            cursor.row().intCell(i).text("customer\n" + i).doubleCell(i * 1.005).end();
+        }
+        assertEquals(plain.getString(), cursor.getString());
+    }
+
+
+    @Test
+    public void primitivesAreFormattedLikeTheirBoxes(){
+        TabularPrint plain = new TabularPrint();
+        TabularPrint cursor = new TabularPrint();
+        for (TabularPrint tp : new TabularPrint[]{ plain, cursor }){
+            tp.addColumn(12);
+            tp.addColumn(22);
+            tp.addColumn(26);
+            tp.addColumn(16);
+            tp.addColumn(12).decimals(3);
+            tp.addColumn(12).decimals(0);
+        }
+        int[] ints = { 0, -1, 7, Integer.MIN_VALUE, Integer.MAX_VALUE };
+        long[] longs = { 0, -1, 123456789012L, Long.MIN_VALUE, Long.MAX_VALUE };
+        double[] doubles = { 0.0, -0.0, 0.1, -2.5, 1e21, Double.NaN, Double.NEGATIVE_INFINITY };
+        float[] floats = { 0f, 0.1f, -2.5f, 1e10f, Float.NaN, Float.MAX_VALUE, Float.MIN_VALUE };
+        for (int k = 0; k < doubles.length; k++){
+            int i = ints[k % ints.length];
+            long l = longs[k % longs.length];
+            double d = doubles[k];
+            float f = floats[k];
+            plain.printRow(i, l, d, f, d, f);
+            cursor.row().intCell(i).longCell(l).doubleCell(d).floatCell(f).doubleCell(d).floatCell(f).end();
+        }
+        assertEquals(plain.getString(), cursor.getString());
+    }
+
+
+    @Test
+    public void missingCellsAreBlankAndExtraCellsIgnored(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(3);
+        tp.addColumnSeparator("|");
+        tp.addColumn(3);
+        tp.addColumnSeparator("|");
+        tp.row().text("a").end();
+        tp.row().text("a").cell(null).intCell(5).text("extra").end();
+        tp.row().text(null).cell(12).end();
+        assertEquals("a  |   |\n"
+                   + "a  |   |\n"
+                   + "   |12 |\n", tp.getString());
+    }
+
+
+    @Test
+    public void carriageReturnsInTextAreLineBreaks(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(3);
+        tp.addColumnSeparator("|");
+        tp.row().text("a\r\nb\rc").end();
+        assertEquals("a  |\nb  |\nc  |\n", tp.getString());
+    }
+
+
+    @Test
+    public void sameRowIsReused(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(3);
+        TabularPrint.Row first = tp.row();
+        first.text("a").end();
+        assertSame(first, tp.row());
+    }
+
+
+    @Test
+    public void cursorRowsOfAutoSizedColumnsAreHeld(){
+        TabularPrint plain = Tables.orders(null, true);
+        TabularPrint cursor = Tables.orders(null, true);
+        for (int i = 0; i < 20; i++){
+            String name = "customer " + "x".repeat(i);
+            plain.printRow((long) i, name, (float) i / 3);
+            cursor.row().longCell(i).text(name).floatCell((float) i / 3).end();
+        }
+        assertEquals(plain.getString(), cursor.getString());
+    }
+}
@@ -0,0 +1,130 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+public class StreamingTest {
+
+    private static void printRows(TabularPrint tp, int count){
+        for (int i = 0; i < count; i++)
+            tp.printRow(i, i % 2 == 0 ? "customer " + i : "中文 😀 " + i, i * 0.75);
+    }
+
+    private static String inMemory(int count){
+        TabularPrint tp = Tables.orders(null, false);
+        printRows(tp, count);
+        return tp.getString();
+    }
+
+
+    @Test
+    public void sinkReceivesTheTable(){
+        StringBuilder out = new StringBuilder();
+        TabularPrint tp = Tables.orders(out, false);
+        printRows(tp, 500);
+        tp.finish();
+        assertEquals(inMemory(500), out.toString());
+
+        // a second finish has no effect
+        tp.finish();
+        assertEquals(inMemory(500), out.toString());
+    }
+
+
+    @Test
+    public void rowsAreWrittenOnceTheThresholdIsReached(){
+        StringBuilder out = new StringBuilder();
+        TabularPrint tp = new TabularPrint(out, 1000);
+        tp.addColumn(40);
+        for (int i = 0; i < 100; i++)
+            tp.printRow("row " + i);
+
+        // only the text below the threshold is held back
+        assertTrue(out.length() > 0);
+        assertTrue(100 * 41 - out.length() <= 1000, "held back " + (100 * 41 - out.length()));
+        tp.finish();
+        assertEquals(100 * 41, out.length());
+    }
+
+
+    @Test
+    public void streamReceivesUtf8AndIsNotClosed(){
+        boolean[] closed = { false };
+        ByteArrayOutputStream stream = new ByteArrayOutputStream(){
+            @Override
+            public void close(){ closed[0] = true; }
+        };
+        TabularPrint tp = new TabularPrint(stream);
+        TabularPrint plain = new TabularPrint();
+        for (TabularPrint table : new TabularPrint[]{ tp, plain }){
+            table.addColumn(12).maxLines(2);
+            table.showBorder(true);
+            for (int i = 0; i < 500; i++)
+                table.printRow(i % 2 == 0 ? "café " + i : "中文 😀 " + i);
+        }
+        tp.finish();
+        assertArrayEquals(plain.getString().getBytes(StandardCharsets.UTF_8), stream.toByteArray());
+        assertFalse(closed[0]);
+    }
+
+
+    @Test
+    public void writerIsFlushedByFinish(){
+        int[] flushes = { 0 };
+        StringWriter writer = new StringWriter(){
+            @Override
+            public void flush(){ flushes[0]++; }
+        };
+        TabularPrint tp = Tables.orders(writer, false);
+        printRows(tp, 10);
+        tp.finish();
+        assertEquals(inMemory(10), writer.toString());
+        assertEquals(1, flushes[0]);
+    }
+
+
+    @Test
+    public void sinkErrorsAreUnchecked(){
+        Appendable failing = new Appendable(){
+            @Override
+            public Appendable append(CharSequence s) throws IOException{ throw new IOException("disk full"); }
+
+            @Override
+            public Appendable append(CharSequence s, int start, int end) throws IOException{ 
+                throw new IOException("disk full"); 
+            }
+
+            @Override
+            public Appendable append(char c) throws IOException{ throw new IOException("disk full"); }
+        };
+        TabularPrint tp = new TabularPrint(failing, 0);
+        tp.addColumn(10);
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> {
+            tp.printRow("row");
+            tp.finish();
+        });
+        assertEquals("disk full", e.getCause().getMessage());
+    }
+
+
+    @Test
+    public void textIsRetrievedOnlyFromTablesInMemory(){
+        TabularPrint streaming = new TabularPrint(new StringBuilder());
+        streaming.addColumn(10);
+        assertThrows(IllegalStateException.class, streaming::getString);
+        assertThrows(IllegalStateException.class, streaming::getNewText);
+
+        TabularPrint inMemory = new TabularPrint();
+        assertThrows(IllegalStateException.class, inMemory::finish);
+    }
+}
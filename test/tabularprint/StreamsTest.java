@@ -0,0 +1,104 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class StreamsTest {
+
+    private static Object[] row(int i){
+        return new Object[]{ i, i % 3 == 0 ? "customer\n" + i : "customer " + i, i * 0.25 };
+    }
+
+    private static String printed(int count){
+        TabularPrint tp = Tables.orders(null, false);
+        for (int i = 0; i < count; i++)
+            tp.printRow(row(i));
+        return tp.getString();
+    }
+
+
+    @Test
+    public void collectorMatchesPrintRow(){
+        Collector<Object[], ?, String> collector = Tables.orders(null, false).collector();
+        String table = IntStream.range(0, 500).mapToObj(StreamsTest::row).collect(collector);
+        assertEquals(printed(500), table);
+
+        // the collector keeps nothing between uses
+        assertEquals(printed(10), IntStream.range(0, 10).mapToObj(StreamsTest::row).collect(collector));
+        // without rows, there is the head and the bottom border, as from a renderer
+        String empty = Tables.orders(null, false).compile().newRenderer().getString();
+        assertEquals(empty, Stream.<Object[]>empty().collect(collector));
+    }
+
+
+    @Test
+    public void parallelCollectorKeepsTheOrderOfTheStream() throws Exception{
+        Collector<Object[], ?, String> collector = Tables.orders(null, false).collector();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            String table = pool.submit(() -> IntStream.range(0, 20_000).parallel()
+                    .mapToObj(StreamsTest::row)
+                    .collect(collector)).get();
+            assertEquals(printed(20_000), table);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+
+    @Test
+    public void unorderedParallelCollectorPrintsEveryRow(){
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(6);
+        String table = IntStream.range(0, 10_000).parallel().unordered()
+                .mapToObj(i -> new Object[]{ i })
+                .collect(tp.collector());
+        assertEquals(10_000, table.lines().map(String::trim).distinct().count());
+    }
+
+
+    @Test
+    public void linesMatchTheTable(){
+        String lines = Tables.orders(null, false)
+                .lines(IntStream.range(0, 300).mapToObj(StreamsTest::row))
+                .collect(Collectors.joining("\n", "", "\n"));
+        assertEquals(printed(300), lines);
+    }
+
+
+    @Test
+    public void linesRenderOnlyTheRowsThatAreRead(){
+        AtomicInteger rendered = new AtomicInteger();
+        TabularPrint tp = new TabularPrint();
+        tp.addColumn(10);
+        List<String> lines = tp.lines(IntStream.range(0, 1_000_000)
+                                               .peek(i -> rendered.incrementAndGet())
+                                               .mapToObj(i -> new Object[]{ i }))
+                               .limit(5)
+                               .toList();
+        assertEquals(5, lines.size());
+        assertTrue(rendered.get() <= 6, rendered + " rows rendered");
+    }
+
+
+    @Test
+    public void closingTheLinesClosesTheRows(){
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Object[]> rows = IntStream.range(0, 10).mapToObj(StreamsTest::row)
+                                         .onClose(() -> closed.set(true));
+        try (Stream<String> lines = Tables.orders(null, false).lines(rows)){
+            assertTrue(lines.findFirst().isPresent());
+        }
+        assertTrue(closed.get());
+    }
+}
@@ -0,0 +1,101 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+public class TableSpecTest {
+
+    private static List<Object> rows(){
+        List<Object> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++){
+            switch (i % 3) {
+                case 0 -> rows.add(new Object[]{ i, "a rather long customer " + i, i * 1.005 });
+                case 1 -> rows.add(List.of(i, "customer\n" + i, "中文"));
+                default -> rows.add("only the id");
+            }
+        }
+        return rows;
+    }
+
+    private static String plain(List<Object> rows){
+        TabularPrint tp = Tables.orders(null, false);
+        tp.printRows(rows);
+        return tp.getString();
+    }
+
+
+    @Test
+    public void rendererMatchesPlainTable(){
+        TableRenderer renderer = Tables.orders(null, false).compile().newRenderer();
+        renderer.printRows(rows());
+        assertEquals(plain(rows()), renderer.getString());
+    }
+
+
+    @Test
+    public void specIsNotAffectedByItsTable(){
+        TabularPrint tp = Tables.orders(null, false);
+        TableSpec spec = tp.compile();
+        tp.addColumn(5, "Extra");
+        tp.showBorder(false);
+        tp.printRow("x", 1, "y", "z");
+
+        TableRenderer renderer = spec.newRenderer();
+        renderer.printRows(rows());
+        assertEquals(plain(rows()), renderer.getString());
+    }
+
+
+    @Test
+    public void clearedRendererPrintsANewTable(){
+        TableSpec spec = Tables.orders(null, false).compile();
+        TableRenderer renderer = spec.newRenderer();
+        renderer.printRow("first", 1.0, "row");
+        renderer.clear();
+        renderer.printRows(rows());
+        assertEquals(plain(rows()), renderer.getString());
+
+        // without rows, there is the head and the bottom border only
+        renderer.clear();
+        String empty = renderer.getString();
+        assertEquals(spec.getHead(), empty.substring(0, spec.getHead().length()));
+        assertEquals(1, empty.substring(spec.getHead().length()).split("\n").length);
+    }
+
+
+    @Test
+    public void writeToMatchesGetString() throws Exception{
+        TableRenderer renderer = Tables.orders(null, false).compile().newRenderer();
+        renderer.printRows(rows());
+        StringWriter writer = new StringWriter();
+        renderer.writeTo(writer);
+        StringBuilder builder = new StringBuilder();
+        renderer.writeTo(builder);
+        assertEquals(renderer.getString(), writer.toString());
+        assertEquals(renderer.getString(), builder.toString());
+    }
+
+
+    @Test
+    public void threadsShareASpec() throws Exception{
+        TableSpec spec = Tables.orders(null, false).compile();
+        String expected = plain(rows());
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int t = 0; t < 16; t++)
+                futures.add(pool.submit(() -> spec.newRenderer().printRows(rows()).getString()));
+            for (Future<String> future : futures)
+                assertEquals(expected, future.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package tabularprint;
+
+/*
+ * The table the tests print, so that every test class builds it the same way.
+ */
+final class Tables {
+
+    private Tables(){}
+
+    /*
+     * An Id, a Customer and a Total column, with a title, headers, a border and
+     * row separators. The table streams to the given sink, or keeps its text in
+     * memory if the sink is null. The Customer column is 14 wide, or it is sized
+     * by the rows if autoWidth is set.
+     */
+    static TabularPrint orders(Appendable out, boolean autoWidth){
+        TabularPrint tp = out == null ? new TabularPrint() : new TabularPrint(out);
+        tp.setTitle("Orders");
+        tp.addColumn(8, "Id").horizontalRight();
+        tp.addColumnSeparator();
+        if (autoWidth)
+            tp.addColumn().header("Customer").autoWidth();
+        else
+            tp.addColumn(14, "Customer");
+        tp.addColumnSeparator();
+        tp.addColumn(10, "Total").horizontalRight().decimals(2);
+        tp.showHeaders(true);
+        tp.showBorder(true);
+        tp.showRowSeparators(true);
+        return tp;
+    }
+}
@@ -0,0 +1,113 @@
+package tabularprint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TypedTabularPrintTest {
+
+    record Order(int id, long ref, String customer, double total, boolean paid, char grade){}
+
+    record Sized(@TableColumn(autoWidth = true) String name,
+                 @TableColumn(header = "amount", width = 7, decimals = 1) double value){}
+
+    public static class Item{
+        private final int code;
+        private final String label;
+
+        Item(int code, String label){
+            this.code = code;
+            this.label = label;
+        }
+
+        @TableColumn(order = 2)
+        public String getLabel(){ return label; }
+
+        @TableColumn(order = 1, header = "#")
+        public int getCode(){ return code; }
+
+        public int notAColumn(){ return 0; }
+    }
+
+    private static List<Order> orders(){
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 30; i++)
+            orders.add(new Order(i * 1000, -i * 123456789L, "customer " + i, i * 10.125, i % 2 == 0, 'A'));
+        return orders;
+    }
+
+
+    @Test
+    public void recordMatchesPlainTable(){
+        TypedTabularPrint<Order> typed = TabularPrint.forType(Order.class);
+        typed.printRows(orders());
+
+        // the widths are derived from the types, or from the headers if these are wider
+        TabularPrint plain = new TabularPrint();
+        plain.addColumn(11, "id").horizontalRight();
+        plain.addColumnSeparator();
+        plain.addColumn(20, "ref").horizontalRight();
+        plain.addColumnSeparator();
+        plain.addColumn(12, "customer");
+        plain.addColumnSeparator();
+        plain.addColumn(12, "total").horizontalRight().decimals(2);
+        plain.addColumnSeparator();
+        plain.addColumn(5, "paid");
+        plain.addColumnSeparator();
+        plain.addColumn(5, "grade");
+        plain.showHeaders(true);
+        for (Order o : orders())
+            plain.printRow(o.id(), o.ref(), o.customer(), o.total(), o.paid(), o.grade());
+
+        assertEquals(plain.getString(), typed.getString());
+    }
+
+
+    @Test
+    public void rowsAreStreamedWithoutBeingHeld(){
+        StringBuilder out = new StringBuilder();
+        TypedTabularPrint<Order> typed = new TypedTabularPrint<>(Order.class, new TabularPrint(out, 1));
+        typed.printRows(orders());
+        // every row is written to the sink before the table is finished
+        assertEquals(orders().size() + 2, out.toString().split("\n").length);
+    }
+
+
+    @Test
+    public void autoWidthIsOptIn(){
+        TypedTabularPrint<Sized> typed = TabularPrint.forType(Sized.class);
+        typed.printRow(new Sized("a rather long name", 3.14159));
+        typed.printRow(new Sized("short", 2.5));
+
+        TabularPrint plain = new TabularPrint();
+        plain.addColumn().header("name").autoWidth();
+        plain.addColumnSeparator();
+        plain.addColumn(7, "amount").horizontalRight().decimals(1);
+        plain.showHeaders(true);
+        plain.printRow("a rather long name", 3.14159);
+        plain.printRow("short", 2.5);
+
+        assertEquals(plain.getString(), typed.getString());
+    }
+
+
+    @Test
+    public void annotatedGettersAreOrdered(){
+        TypedTabularPrint<Item> typed = TabularPrint.forType(Item.class);
+        typed.printRow(new Item(7, "seven"));
+        String[] lines = typed.getString().split("\n");
+        assertTrue(lines[0].trim().startsWith("#"), lines[0]);
+        assertTrue(lines[0].contains("label"), lines[0]);
+        assertTrue(lines[2].contains("seven"), lines[2]);
+    }
+
+
+    @Test
+    public void typeWithoutColumnsIsRejected(){
+        assertThrows(IllegalArgumentException.class, () -> TabularPrint.forType(String.class));
+    }
+}